@@ -0,0 +1,284 @@
+package com.github.camsmith03;
+
+/**
+ * <p>
+ * Precomputed attack tables for every piece. The knight, king and pawn
+ * attacks only depend on the square, so each is a single table indexed by it.
+ * </p><p>
+ * The sliding pieces use magic bitboards. For every square, the occupancy of the squares that could block a rook (or
+ * bishop) is multiplied by a "magic" number, and the top bits of the product
+ * index directly into a table holding the attack set for that occupancy. This
+ * turns walking each ray square by square into a mask, a multiply, a shift
+ * and a load.
+ * </p><p>
+ * The magic numbers are found when the class is initialized by trying sparse
+ * random candidates until one maps every occupancy without a destructive
+ * collision. A fixed seed is used, so the same magics (and tables) are built
+ * on every run.
+ * </p>
+ * <p>
+ * Squares are indexed from 0 (a1) to 63 (h8), matching the bit index of the
+ * bitboards.
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public final class AttackTables {
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64]; // indexed by the attacking pawn's color
+    private static final long[][] BETWEEN = new long[64][64];
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_OFFSETS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1},
+            {-1, 2}};
+    private static final int[][] KING_OFFSETS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1},
+            {1, -1}};
+
+    private static long seed = 0x5DEECE66DL;
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            ROOK_MASKS[sq] = relevantOccupancy(sq, ROOK_DIRECTIONS);
+            BISHOP_MASKS[sq] = relevantOccupancy(sq, BISHOP_DIRECTIONS);
+            ROOK_SHIFTS[sq] = 64 - Long.bitCount(ROOK_MASKS[sq]);
+            BISHOP_SHIFTS[sq] = 64 - Long.bitCount(BISHOP_MASKS[sq]);
+            ROOK_ATTACKS[sq] = new long[1 << Long.bitCount(ROOK_MASKS[sq])];
+            BISHOP_ATTACKS[sq] = new long[1 << Long.bitCount(BISHOP_MASKS[sq])];
+            ROOK_MAGICS[sq] = findMagic(sq, ROOK_MASKS[sq], ROOK_SHIFTS[sq], ROOK_DIRECTIONS, ROOK_ATTACKS[sq]);
+            BISHOP_MAGICS[sq] = findMagic(sq, BISHOP_MASKS[sq], BISHOP_SHIFTS[sq], BISHOP_DIRECTIONS,
+                    BISHOP_ATTACKS[sq]);
+
+            KNIGHT_ATTACKS[sq] = offsetAttacks(sq, KNIGHT_OFFSETS);
+            KING_ATTACKS[sq] = offsetAttacks(sq, KING_OFFSETS);
+            PAWN_ATTACKS[0][sq] = offsetAttacks(sq, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[1][sq] = offsetAttacks(sq, new int[][]{{-1, -1}, {-1, 1}});
+        }
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long aMask = 1L << a;
+                long bMask = 1L << b;
+                if ((rookAttacks(a, 0) & bMask) != 0)
+                    BETWEEN[a][b] = rookAttacks(a, bMask) & rookAttacks(b, aMask);
+                else if ((bishopAttacks(a, 0) & bMask) != 0)
+                    BETWEEN[a][b] = bishopAttacks(a, bMask) & bishopAttacks(b, aMask);
+            }
+        }
+    }
+
+    private AttackTables() {}
+
+    /**
+     * Squares attacked by a rook on the given square. Includes the first
+     * blocker along each ray regardless of its color, so callers mask out
+     * their own pieces.
+     *
+     * @param square
+     *      index of the rook's square (0-63).
+     * @param occupied
+     *      every occupied square on the board.
+     * @return attack set.
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return ROOK_ATTACKS[square][(int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square])
+                >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Squares attacked by a bishop on the given square. Includes the first
+     * blocker along each diagonal regardless of its color.
+     *
+     * @param square
+     *      index of the bishop's square (0-63).
+     * @param occupied
+     *      every occupied square on the board.
+     * @return attack set.
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        return BISHOP_ATTACKS[square][(int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square])
+                >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Squares attacked by a queen, being the union of the rook and bishop
+     * attacks from the same square.
+     *
+     * @param square
+     *      index of the queen's square (0-63).
+     * @param occupied
+     *      every occupied square on the board.
+     * @return attack set.
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Squares attacked by a knight on the given square.
+     *
+     * @param square
+     *      index of the knight's square (0-63).
+     * @return attack set.
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * Squares attacked by a king on the given square.
+     *
+     * @param square
+     *      index of the king's square (0-63).
+     * @return attack set.
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * Squares attacked (diagonally forward) by a pawn on the given square.
+     * Looked up with the opposite color, this also gives the squares a pawn
+     * would have to stand on to attack the given square.
+     *
+     * @param colorIndex
+     *      color ordinal of the pawn.
+     * @param square
+     *      index of the pawn's square (0-63).
+     * @return attack set.
+     */
+    public static long pawnAttacks(int colorIndex, int square) {
+        return PAWN_ATTACKS[colorIndex][square];
+    }
+
+    /**
+     * Squares strictly between two squares sharing a rank, file or diagonal.
+     * Used for the blocking squares of a check and the ray of a pin.
+     *
+     * @param from
+     *      index of the first square.
+     * @param to
+     *      index of the second square.
+     * @return squares between them, or 0 if they aren't aligned (or adjacent).
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Builds the attack set of a leaping piece from its (rank, file) offsets,
+     * leaving out any that fall off the board.
+     */
+    private static long offsetAttacks(int square, int[][] offsets) {
+        long attacks = 0;
+        for (int[] offset : offsets) {
+            int r = square / 8 + offset[0];
+            int f = square % 8 + offset[1];
+            if (r >= 0 && r <= 7 && f >= 0 && f <= 7)
+                attacks |= 1L << (r * 8 + f);
+        }
+        return attacks;
+    }
+
+    /**
+     * Builds the mask of squares whose occupancy affects a slider's attacks.
+     * The last square of each ray is left out, since a piece there can't
+     * block anything further along the ray.
+     */
+    private static long relevantOccupancy(int square, int[][] directions) {
+        long mask = 0;
+        int rank = square / 8;
+        int file = square % 8;
+        for (int[] dir : directions) {
+            int r = rank + dir[0];
+            int f = file + dir[1];
+            while (r + dir[0] >= 0 && r + dir[0] <= 7 && f + dir[1] >= 0 && f + dir[1] <= 7) {
+                mask |= 1L << (r * 8 + f);
+                r += dir[0];
+                f += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Computes slider attacks by walking each ray until it leaves the board
+     * or hits an occupied square. Only used to fill the tables.
+     */
+    private static long slowAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        int rank = square / 8;
+        int file = square % 8;
+        for (int[] dir : directions) {
+            int r = rank + dir[0];
+            int f = file + dir[1];
+            while (r >= 0 && r <= 7 && f >= 0 && f <= 7) {
+                long bit = 1L << (r * 8 + f);
+                attacks |= bit;
+                if ((occupied & bit) != 0)
+                    break;
+
+                r += dir[0];
+                f += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Finds a magic number for the square and fills its attack table. Every
+     * subset of the relevant occupancy mask is enumerated (carry-rippler
+     * trick), and a candidate is rejected as soon as two occupancies with
+     * different attack sets land on the same index.
+     */
+    private static long findMagic(int square, long mask, int shift, int[][] directions, long[] table) {
+        int size = 1 << Long.bitCount(mask);
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slowAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        int[] epoch = new int[size];
+        for (int attempt = 1; ; attempt++) {
+            long magic = nextRandom() & nextRandom() & nextRandom(); // sparse candidates work best
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6)
+                continue;
+
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> shift);
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    table[index] = attacks[i];
+                }
+                else if (table[index] != attacks[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision)
+                return magic;
+        }
+    }
+
+    // xorshift64*, seeded once so the magics are reproducible.
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+}
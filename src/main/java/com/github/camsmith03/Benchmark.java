@@ -0,0 +1,336 @@
+package com.github.camsmith03;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Command line benchmarks used to measure the effect of performance changes.
+ * Each benchmark prints its own results, so runs before and after a change can
+ * be compared directly.
+ * <br>
+ * Usage: java Benchmark search [depth] | smp [depth] | movegen | perft [depth] | see | eval
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class Benchmark {
+    private static final int DEFAULT_SEARCH_DEPTH = 6;
+    private static final int SEARCH_RUNS = 8;
+    private static final int SMP_RUNS = 3;
+    private static final int[] SMP_THREADS = {1, 2, 4, 8, 16};
+    private static final int MOVEGEN_RUNS = 8;
+    private static final int MOVEGEN_PLIES = 60;
+    private static final int MOVEGEN_REPEATS = 2000;
+    private static final int SEE_REPEATS = 20000;
+    private static final int EVAL_REPEATS = 2000;
+    private static final int DEFAULT_PERFT_DEPTH = 5;
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java Benchmark search [depth] | smp [depth] | movegen | perft [depth] | see | eval");
+            System.exit(1);
+        }
+
+        switch (args[0]) {
+            case "search" -> searchBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SEARCH_DEPTH);
+            case "smp" -> smpBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SEARCH_DEPTH);
+            case "movegen" -> moveGenBenchmark();
+            case "perft" -> perftBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PERFT_DEPTH);
+            case "see" -> staticExchangeBenchmark();
+            case "eval" -> evaluationBenchmark();
+            default -> {
+                System.out.println("Unknown benchmark: " + args[0]);
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Searches the starting position to the given depth (iterating from
+     * depth 1 within the single call, with no time limit) and reports the
+     * nodes per second of the whole search. The search settings come from the
+     * system properties (see SearchConfig), so a feature can be switched off
+     * to compare the nodes it takes to reach the depth. The search is repeated so later
+     * runs reflect JIT compiled code, and the best rate is reported at the
+     * end, along with the full statistics of the last run (table hit rates
+     * and the counters of each pruning technique).
+     *
+     * @param depth
+     *      depth of the final iteration.
+     */
+    private static void searchBenchmark(int depth) {
+        SearchConfig config = SearchConfig.fromSystemProperties();
+        config.setReportIterations(false);
+        SearchLimits limits = new SearchLimits();
+        limits.setMaxDepth(depth);
+
+        long bestNodesPerSec = 0;
+        for (int run = 1; run <= SEARCH_RUNS; run++) {
+            BoardController boardController = new BoardController();
+            Minimax minimax = new Minimax(boardController, config);
+
+            long allocated = allocatedBytes();
+            Move move = minimax.search(boardController, limits);
+            allocated = allocatedBytes() - allocated;
+
+            SearchStats stats = minimax.getStats();
+            long millis = Math.max(1, stats.getElapsedMillis());
+            System.out.printf("run %d: depth %d, best %s, %d nodes in %d ms (%d nodes/sec, %d bytes/node, "
+                    + "eval cache hits %.1f%%)%n", run, stats.getDepth(), new OutputTranslationUnit().translate(move),
+                    stats.getNodes(), millis, stats.getNodes() * 1000 / millis,
+                    allocated / Math.max(1, stats.getNodes()), stats.getEvalHitRate());
+            if (run == SEARCH_RUNS)
+                System.out.println("stats: " + stats);
+            bestNodesPerSec = Math.max(bestNodesPerSec, stats.getNodes() * 1000 / millis);
+        }
+        System.out.printf("best: %d nodes/sec%n", bestNodesPerSec);
+    }
+
+    /**
+     * Measures how Lazy SMP scales: the starting position is searched to the
+     * given depth with 1, 2, 4, 8 and 16 threads, and the time to reach the
+     * depth (best of a few runs, each with a fresh transposition table) is
+     * compared against the single-threaded time (after a few untimed
+     * warm-up searches). The total nodes per second
+     * across the threads is reported as well, since helper threads mostly
+     * pay off through the extra nodes they put in the shared table.
+     *
+     * @param depth
+     *      depth of the final iteration.
+     */
+    private static void smpBenchmark(int depth) {
+        SearchLimits limits = new SearchLimits();
+        limits.setMaxDepth(depth);
+        System.out.printf("%d available processors%n", Runtime.getRuntime().availableProcessors());
+
+        // Warm up first, so the single-threaded baseline isn't measured before the JIT compiled the search
+        SearchConfig warmUpConfig = new SearchConfig();
+        warmUpConfig.setReportIterations(false);
+        for (int run = 0; run < SEARCH_RUNS; run++) {
+            BoardController boardController = new BoardController();
+            new Minimax(boardController, warmUpConfig).search(boardController, limits);
+        }
+
+        long baseMillis = 0;
+        for (int threads : SMP_THREADS) {
+            SearchConfig config = new SearchConfig();
+            config.setReportIterations(false);
+            config.setThreads(threads);
+
+            long bestMillis = Long.MAX_VALUE;
+            long nodes = 0;
+            for (int run = 1; run <= SMP_RUNS; run++) {
+                BoardController boardController = new BoardController();
+                Minimax minimax = new Minimax(boardController, config);
+                minimax.search(boardController, limits);
+
+                SearchStats stats = minimax.getStats();
+                long millis = Math.max(1, stats.getElapsedMillis());
+                if (millis < bestMillis) {
+                    bestMillis = millis;
+                    nodes = stats.getNodes();
+                }
+            }
+
+            if (threads == 1)
+                baseMillis = bestMillis;
+            System.out.printf("%2d threads: depth %d in %d ms, %d nodes (%d nodes/sec), speedup %.2fx%n", threads,
+                    depth, bestMillis, nodes, nodes * 1000 / bestMillis, (double) baseMillis / bestMillis);
+        }
+    }
+
+    /**
+     * Measures raw move generation speed over the positions of a random game
+     * (fixed seed, so every run sees the same positions). Each position has
+     * its moves generated repeatedly, and the best generated moves per second
+     * across the runs is reported.
+     */
+    private static void moveGenBenchmark() {
+        Bitboard bitboard = new Bitboard();
+        MoveGenerator moveGenerator = new MoveGenerator();
+        int[] game = randomGame(bitboard, moveGenerator, new Random(1));
+
+        long bestMovesPerSec = 0;
+        for (int run = 1; run <= MOVEGEN_RUNS; run++) {
+            long generated = 0;
+            long start = System.nanoTime();
+            Piece.Color turn = Piece.Color.WHITE;
+            for (int move : game) {
+                for (int i = 0; i < MOVEGEN_REPEATS; i++)
+                    generated += moveGenerator.generateMoves(bitboard, turn).size();
+
+                bitboard.makeMove(move);
+                turn = turn == Piece.Color.WHITE ? Piece.Color.BLACK : Piece.Color.WHITE;
+            }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+            for (int i = game.length - 1; i >= 0; i--)
+                bitboard.unmakeMove(game[i]);
+
+            System.out.printf("run %d: %d positions, %d moves in %d ms (%d moves/sec)%n", run, game.length,
+                    generated, millis, generated * 1000 / millis);
+            bestMovesPerSec = Math.max(bestMovesPerSec, generated * 1000 / millis);
+        }
+        System.out.printf("best: %d moves/sec%n", bestMovesPerSec);
+    }
+
+    /**
+     * Measures perft speed (see Perft) from the starting position: legal
+     * move generation plus make and unmake, with bulk counting at the last
+     * ply. The best leaf nodes per second across the runs is reported.
+     *
+     * @param depth
+     *      perft depth.
+     */
+    private static void perftBenchmark(int depth) {
+        Perft perft = new Perft(new Bitboard());
+        long bestNodesPerSec = 0;
+        for (int run = 1; run <= MOVEGEN_RUNS; run++) {
+            long start = System.nanoTime();
+            long nodes = perft.count(Piece.Color.WHITE, depth);
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+            System.out.printf("run %d: depth %d, %d nodes in %d ms (%d nodes/sec)%n", run, depth, nodes, millis,
+                    nodes * 1000 / millis);
+            bestNodesPerSec = Math.max(bestNodesPerSec, nodes * 1000 / millis);
+        }
+        System.out.printf("best: %d nodes/sec%n", bestNodesPerSec);
+    }
+
+    /**
+     * Measures static exchange evaluations per second over every capture
+     * available in the positions of a random game (the same fixed seed game
+     * as the move generation benchmark).
+     */
+    private static void staticExchangeBenchmark() {
+        Bitboard bitboard = new Bitboard();
+        MoveGenerator moveGenerator = new MoveGenerator();
+        StaticExchange staticExchange = new StaticExchange(bitboard);
+        int[] game = randomGame(bitboard, moveGenerator, new Random(1));
+        int[] captures = new int[MoveBuffer.MAX_MOVES];
+
+        long bestCallsPerSec = 0;
+        for (int run = 1; run <= MOVEGEN_RUNS; run++) {
+            long calls = 0;
+            long checksum = 0; // keeps the JIT from discarding the evaluations
+            long start = System.nanoTime();
+            Piece.Color turn = Piece.Color.WHITE;
+            for (int move : game) {
+                int count = moveGenerator.generateCaptures(bitboard, turn, captures);
+                for (int i = 0; i < SEE_REPEATS; i++) {
+                    for (int c = 0; c < count; c++)
+                        checksum += staticExchange.evaluate(captures[c]);
+                }
+                calls += (long) count * SEE_REPEATS;
+
+                bitboard.makeMove(move);
+                turn = turn == Piece.Color.WHITE ? Piece.Color.BLACK : Piece.Color.WHITE;
+            }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+            for (int i = game.length - 1; i >= 0; i--)
+                bitboard.unmakeMove(game[i]);
+
+            System.out.printf("run %d: %d evaluations in %d ms (%d evaluations/sec, checksum %d)%n", run, calls,
+                    millis, calls * 1000 / millis, checksum);
+            bestCallsPerSec = Math.max(bestCallsPerSec, calls * 1000 / millis);
+        }
+        System.out.printf("best: %d evaluations/sec%n", bestCallsPerSec);
+    }
+
+    /**
+     * Measures leaf evaluations per second the way the search reaches them:
+     * each legal move in the positions of the random game (the same fixed seed
+     * game as the move generation benchmark) is made, the resulting position
+     * evaluated, then the move unmade. This includes the cost of keeping any
+     * incremental evaluation terms up to date. Comparing the best rate (or
+     * the time per call) against a build without an evaluation change gives
+     * its cost per leaf.
+     */
+    private static void evaluationBenchmark() {
+        Bitboard bitboard = new Bitboard();
+        MoveGenerator moveGenerator = new MoveGenerator();
+        Evaluator evaluator = new Evaluator(bitboard);
+        int[] game = randomGame(bitboard, moveGenerator, new Random(1));
+        int[] moves = new int[MoveBuffer.MAX_MOVES];
+
+        long bestCallsPerSec = 0;
+        for (int run = 1; run <= MOVEGEN_RUNS; run++) {
+            long calls = 0;
+            long checksum = 0; // keeps the JIT from discarding the evaluations
+            long start = System.nanoTime();
+            Piece.Color turn = Piece.Color.WHITE;
+            Piece.Color opponent = Piece.Color.BLACK;
+            for (int move : game) {
+                int count = moveGenerator.generateMoves(bitboard, turn, moves);
+                for (int i = 0; i < EVAL_REPEATS; i++) {
+                    for (int m = 0; m < count; m++) {
+                        bitboard.makeMove(moves[m]);
+                        checksum += evaluator.evaluate(opponent);
+                        bitboard.unmakeMove(moves[m]);
+                    }
+                }
+                calls += (long) count * EVAL_REPEATS;
+
+                bitboard.makeMove(move);
+                opponent = turn;
+                turn = turn == Piece.Color.WHITE ? Piece.Color.BLACK : Piece.Color.WHITE;
+            }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+            for (int i = game.length - 1; i >= 0; i--)
+                bitboard.unmakeMove(game[i]);
+
+            System.out.printf("run %d: %d evaluations in %d ms (%d evaluations/sec, checksum %d)%n", run, calls,
+                    millis, calls * 1000 / millis, checksum);
+            bestCallsPerSec = Math.max(bestCallsPerSec, calls * 1000 / millis);
+        }
+        System.out.printf("best: %d evaluations/sec (%d ns each, with the make and unmake)%n", bestCallsPerSec,
+                1_000_000_000L / Math.max(1, bestCallsPerSec));
+    }
+
+    /**
+     * Plays random legal moves from the starting position, then takes them
+     * back so the board is left where it started.
+     *
+     * @return the packed moves played.
+     */
+    private static int[] randomGame(Bitboard bitboard, MoveGenerator moveGenerator, Random random) {
+        int[] game = new int[MOVEGEN_PLIES];
+        int played = 0;
+        Piece.Color turn = Piece.Color.WHITE;
+        for (int ply = 0; ply < MOVEGEN_PLIES; ply++) {
+            MoveList moves = moveGenerator.generateMoves(bitboard, turn);
+            int[] legal = new int[moves.size()];
+            for (int i = 0; i < legal.length; i++)
+                legal[i] = moves.pop();
+
+            if (legal.length == 0)
+                break;
+
+            int move = legal[random.nextInt(legal.length)];
+            bitboard.makeMove(move);
+            game[played++] = move;
+            turn = turn == Piece.Color.WHITE ? Piece.Color.BLACK : Piece.Color.WHITE;
+        }
+
+        for (int i = played - 1; i >= 0; i--)
+            bitboard.unmakeMove(game[i]);
+
+        return Arrays.copyOf(game, played);
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, used to show how much
+     * garbage the search produces per node. Returns 0 if the JVM doesn't
+     * support allocation tracking.
+     *
+     * @return allocated bytes.
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadBean)
+            return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+        return 0;
+    }
+}
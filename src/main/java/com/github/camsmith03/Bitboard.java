@@ -1,4 +1,5 @@
 package com.github.camsmith03;
+import java.util.Arrays;
 
 /**
  * <p>
@@ -7,11 +8,11 @@ package com.github.camsmith03;
  * approaches as far less space is consumed by the game board. This also adds an
  * additional feature of move virtualization, which will allow paths to the
  * traversed, then returned back to the start without the need to worry about
- * loosing the previous state. As of now, it allows for single path traversal,
- * however, plans are made to reimplement the SaveState class as a circular
- * based stack with the size of ply. This would remove the need for hard copies
- * to be made, allowing the algorithm to truly leverage the power bitboards have
- * to offer over conventional implementations.
+ * loosing the previous state. Virtualization allows for single path
+ * traversal, while deeper paths use makeMove()/unmakeMove(), backed by a
+ * circular undo stack with a frame per ply. This removes the need for hard
+ * copies to be made, allowing the algorithm to truly leverage the power
+ * bitboards have to offer over conventional implementations.
  * </p>
  * <p>
  * All the methods and implementations were created by myself. Any constants
@@ -32,42 +33,31 @@ package com.github.camsmith03;
  * @version 07.26.2024
  */
 public class Bitboard {
-    private final Piece.Type[] pieceTypeArr = Piece.Type.values();
     private static final long alternatingByteMask = 0xFF00FF00FF00FF00L;
-
-    /*  WHITE INITIAL KING MASK CONSTANTS
-    These bits are the precomputed masks that serve primarily as reference and
-    allow for future modifications if need be. They are based on the direction
-    for the squares surrounding the white king.
-    */
-    private static final long whiteKingUpMask     = 0x1010101010101000L;
-    private static final long whiteKingDownMask   = 0;
-    private static final long whiteKingLeftMask   = 0x000000000000000FL;
-    private static final long whiteKingRightMask  = 0x00000000000000E0L;
-    private static final long whiteKingDiagUL     = 0x0000000102040800L;
-    private static final long whiteKingDiagUR     = 0x0000000080402000L;
-    private static final long whiteKingDiagLL     = 0;
-    private static final long whiteKingDiagLR     = 0;
-    private static final long whiteKingKnightMask = 0x0000000000284400L;
-
-    /* BLACK INITIAL KING MASK CONSTANTS */
-    private static final long blackKingUpMask     = 0;
-    private static final long blackKingDownMask   = 0x0010101010101010L;
-    private static final long blackKingLeftMask   = 0x0F00000000000000L;
-    private static final long blackKingRightMask  = 0xE000000000000000L;
-    private static final long blackKingDiagUL     = 0;
-    private static final long blackKingDiagUR     = 0;
-    private static final long blackKingDiagLL     = 0x0008040201000000L;
-    private static final long blackKingDiagLR     = 0x0020408000000000L;
-    private static final long blackKingKnightMask = 0x0044280000000000L;
-
-    private final long[][] defaultKingSideCastleMasks  = new long[2][];
-    private final long[][] defaultQueenSideCastleMasks = new long[2][];
-
-    private enum KingMoveDir { UP, DOWN, LEFT, RIGHT, UPPER_LEFT, UPPER_RIGHT, LOWER_LEFT, LOWER_RIGHT }
+    static final int BOARD_COUNT = 9; // piece type masks, castle-able rooks mask, and the two en passant masks
+    public static final int EMPTY = PackedMove.NO_PIECE; // pieceAt() code of an empty square
+    private static final Piece[] PIECES = new Piece[16]; // getPiece() result for each pieceAt() code
 
     public long enPassantBoard = 0; // Flag that stays zero unless a move from either side could allow for an ep capture
                                     // Its value is un-flipped after the next turn (in line with ep rules).
+    private long savedEnPassantBoard = 0; // enPassantBoard as of the last permanent move, restored when wiping a
+                                          // virtual instance.
+
+    // Zobrist hash of the position. The temp key follows tempBoards (including virtual moves), while the saved key
+    // follows boards, mirroring how the two board arrays are kept.
+    private long zobristKey;
+    private long tempZobristKey;
+
+    // Evaluation accumulators (see Evaluator), kept the same way as the Zobrist keys. Moves only touch a few squares,
+    // so these are updated with each one instead of recounting every piece at each leaf. The piece-square score is
+    // white minus black, with the middlegame and endgame sums packed into one int, and the phase adds up the non-pawn
+    // material of both sides. The pawn key hashes only the pawns, indexing the Evaluator's PawnTable.
+    private int pieceSquareScore;
+    private int tempPieceSquareScore;
+    private int phase;
+    private int tempPhase;
+    private long pawnKey;
+    private long tempPawnKey;
 
 
     // Board backing storage fields
@@ -83,6 +73,40 @@ public class Bitboard {
                                             // modifiedMaskIndex).
     private int changeHistSize; // essentially the stack pointer to modified boards
 
+    // Square-indexed copy of tempBoards (mailbox), answering "what is on this square" without scanning the piece
+    // boards. Each entry is a pieceAt() code: (colorIndex << 3) | type ordinal, or EMPTY.
+    private final byte[] mailbox = new byte[64];
+
+    static {
+        for (Piece.Color color : Piece.Color.values()) {
+            for (int type = 0; type < 6; type++)
+                PIECES[(color.ordinal() << 3) | type] = new Piece(Piece.Type.values()[type], color);
+        }
+    }
+
+    /* === UNDO STACK (make/unmake) ===
+    Circular, pre-allocated stack with one frame per ply. Every frame stores the
+    previous value of each board a move overwrote (found through changeHist as
+    the changes are applied), along with the color boards, en passant board,
+    Zobrist key and evaluation accumulators. This allows makeMove()/unmakeMove() to replace SaveState hard
+    copies in the search without allocating anything per node.
+    */
+    private static final int UNDO_FRAMES = 256; // must be a power of two (wraps around using UNDO_FRAMES - 1)
+    private static final int UNDO_FRAME_SIZE = 8; // max boards a single move can modify (a capture-promotion of a
+                                                  // castle-able rook touches 4)
+    private final int[] undoBoardIndices = new int[UNDO_FRAMES * UNDO_FRAME_SIZE]; // (colorIndex << 5) | boardIndex
+    private final long[] undoBoardValues = new long[UNDO_FRAMES * UNDO_FRAME_SIZE];
+    private final int[] undoSizes = new int[UNDO_FRAMES];
+    private final long[] undoWhiteBoards = new long[UNDO_FRAMES];
+    private final long[] undoBlackBoards = new long[UNDO_FRAMES];
+    private final long[] undoEnPassantBoards = new long[UNDO_FRAMES];
+    private final long[] undoZobristKeys = new long[UNDO_FRAMES];
+    private final int[] undoPieceSquareScores = new int[UNDO_FRAMES];
+    private final int[] undoPhases = new int[UNDO_FRAMES];
+    private final long[] undoPawnKeys = new long[UNDO_FRAMES];
+    private int undoTop; // number of frames pushed (index of the next frame before wrapping)
+    private boolean recordUndo = false; // set by makeMove() so applyChanges() saves the values it overwrites
+
 
     /* === MOVE VIRTUALIZATION FLAGS === */
 
@@ -132,12 +156,8 @@ public class Bitboard {
      *                           any point, this is set to zero to indicate that
      *                           castling is no longer available.
      * </p><p>
-     * The KING CHECK MASKS:     These are the masking bits corresponding to the
-     *                           squares that *could* pose a threat to the king.
-     *                           They are essential in ensuring no moves were
-     *                           attempted that would put the moved piece's king
-     *                           in check. They are changed only when the king
-     *                           is moved for either side.
+     * Checks are found from the attack tables (see AttackTables) instead of
+     * stored masks, so nothing needs to be maintained as the king moves.
      * </p>
      *
      */
@@ -157,18 +177,7 @@ public class Bitboard {
 
                 // ######### EN PASSANT CAPTURE MASKS #########
                 0x00FF000000000000L, // En Passant From Location Masks
-                0x000000FF00000000L, // En Passant To Location Masks
-
-                // #########     KING CHECK MASKS     #########
-                whiteKingUpMask,     // kUp Mask
-                whiteKingDownMask,   // kDown Mask
-                whiteKingLeftMask,   // kLeft Mask
-                whiteKingRightMask,  // kRight Mask
-                whiteKingDiagUL,     // kUpperLeft Mask
-                whiteKingDiagUR,     // kUpperRight Mask
-                whiteKingDiagLL,     // kLowerLeft Mask
-                whiteKingDiagLR,     // kLowerRight Mask
-                whiteKingKnightMask  // kKnightPos Mask
+                0x000000FF00000000L  // En Passant To Location Masks
         };
 
         // Initial black board masking bits
@@ -186,82 +195,15 @@ public class Bitboard {
 
                 // ######### EN PASSANT CAPTURE MASKS #########
                 0x000000000000FF00L, // En Passant From Location Masks
-                0x00000000FF000000L, // En Passant To Location Masks
-
-                // #########     KING CHECK MASKS     #########
-                blackKingUpMask,     // kUp Mask
-                blackKingDownMask,   // kDown Mask
-                blackKingLeftMask,   // kLeft Mask
-                blackKingRightMask,  // kRight Mask
-                blackKingDiagUL,     // kUpperLeft Mask
-                blackKingDiagUR,     // kUpperRight Mask
-                blackKingDiagLL,     // kLowerLeft Mask
-                blackKingDiagLR,     // kLowerRight Mask
-                blackKingKnightMask  // kKnightPos Mask
+                0x00000000FF000000L  // En Passant To Location Masks
         };
 
         // Create a copy of the masks to offer a virtual board that changes can be applied to, then reverted back if the
         // move applied was illegal.
-        tempBoards[0] = new long[18];
-        tempBoards[1] = new long[18];
-        System.arraycopy(boards[0], 0, tempBoards[0], 0, 18);
-        System.arraycopy(boards[1], 0, tempBoards[1], 0, 18);
-
-
-        // TODO: Refactor these by precalculating masks without the reliance on mask constants
-        long[] whiteKingSideMasks = new long[]{
-                whiteKingUpMask    << 2,
-                0, // kDown
-                whiteKingLeftMask  |  0x30,
-                whiteKingRightMask ^  0x60,
-                0x0001020408102000L, // diagUL
-                0x0000000000008000L, // diagUR
-                0, // diagLL
-                0, // diagLR
-                0x000000000A01000L // knights
-        };
-
-        long[] whiteQueenSideMasks = new long[]{
-                whiteKingUpMask    >>> 2,
-                0, // kDown
-                whiteKingLeftMask  ^ 0x0C,
-                whiteKingRightMask | 0x18,
-                0x0000000000010200L, // diagUL
-                0x0000804020100800L, // diagUR
-                0, // diagLL
-                0, // diagLR
-                0x0000000000A1100L, // knights
-        };
-
-        long[] blackKingSideMasks = new long[]{
-                0, // kUp
-                blackKingDownMask  << 2,
-                blackKingLeftMask  | 0x3000000000000000L,
-                0x8000000000000000L, // kRight
-                0, // diagUL
-                0, // diagUR
-                0x0020100804020100L, // diagLL
-                0x0080000000000000L, // diagLR
-                0x0010A00000000000L  // knights
-        };
-
-        long[] blackQueenSideMasks = new long[] {
-                0, // kUp
-                blackKingDownMask  >>> 2,
-                0x0300000000000000L, // kLeft
-                blackKingRightMask | 0x1800000000000000L,
-                0, // diagUL
-                0, // diagUR
-                0x0002010000000000L, // diagLL
-                0x0008102040800000L, // diagLR
-                0x00110A0000000000L  // knights
-        };
-
-        // These don't change, but are rather kept separate as default initial values for reference
-        defaultKingSideCastleMasks[0]  = whiteKingSideMasks;
-        defaultKingSideCastleMasks[1]  = blackKingSideMasks;
-        defaultQueenSideCastleMasks[0] = whiteQueenSideMasks;
-        defaultQueenSideCastleMasks[1] = blackQueenSideMasks;
+        tempBoards[0] = new long[BOARD_COUNT];
+        tempBoards[1] = new long[BOARD_COUNT];
+        System.arraycopy(boards[0], 0, tempBoards[0], 0, BOARD_COUNT);
+        System.arraycopy(boards[1], 0, tempBoards[1], 0, BOARD_COUNT);
 
 
         // GameEngine Boards with all pieces initial values
@@ -269,15 +211,72 @@ public class Bitboard {
         whiteBoard = 0x000000000000FFFFL;
         blackBoard = 0xFFFF000000000000L;
         tempColorBoards = new long[]{0x000000000000FFFFL, 0xFFFF000000000000L};
+
+        zobristKey = computeZobristKey(tempBoards, enPassantBoard);
+        tempZobristKey = zobristKey;
+        rebuildMailbox();
+        computeScores();
     }
 
     /**
-     * Moves a Piece from an initial position to a final position.
+     * Creates a Bitboard holding the position of a FEN string instead of the
+     * starting position (see Fen). The side to move is part of the Zobrist
+     * key, but is otherwise kept by the caller, such as BoardController.
+     *
+     * @param fen
+     *      position in FEN.
+     * @throws IllegalArgumentException
+     *      if the FEN is invalid, or the side not to move is in check.
+     */
+    public Bitboard(String fen) throws IllegalArgumentException {
+        this();
+        Fen position = Fen.parse(fen);
+        restoreSaveState(position.getPosition());
+        if (isKingInCheck(1 - position.getTurnToMove().ordinal()))
+            throw new IllegalArgumentException("The side not to move can't be in check: " + fen);
+    }
+
+    /**
+     * Moves a Piece from an initial position to a final position. The move is
+     * checked to ensure it doesn't leave the mover's king in check, since it
+     * may come from user input rather than the move generator.
      *
      * @param move
      *      Move to apply to the board
+     * @throws IllegalArgumentException
+     *      If the move would place (or leave) the king in check, or castles
+     *      out of or through check.
      */
     public void movePiece(Move move) throws IllegalArgumentException {
+        movePiece(PackedMove.fromMove(move), true);
+    }
+
+    /**
+     * Moves a Piece from an initial position to a final position, taking the
+     * move in its packed form. As with movePiece(Move), the move is checked
+     * to ensure it doesn't leave the mover's king in check.
+     *
+     * @param move
+     *      packed move to apply to the board (see PackedMove).
+     * @throws IllegalArgumentException
+     *      If the move would place (or leave) the king in check, or castles
+     *      out of or through check.
+     */
+    public void movePiece(int move) throws IllegalArgumentException {
+        movePiece(move, true);
+    }
+
+    /**
+     * Applies a move to tempBoards, then writes it back to boards unless a
+     * virtual instance is active.
+     *
+     * @param move
+     *      packed move to apply to the board
+     * @param verify
+     *      whether to check that the move is legal. Moves from the (legal)
+     *      move generator skip the check.
+     */
+    private void movePiece(int move, boolean verify) throws IllegalArgumentException {
         if (!virtualCall && virtualState) {
             // movePiece() hasn't been called by virtualMove(), but history of tempBoards has deviated due to an active
             // virtual state. For safety, we assume the call has no association to the virtual instance, and wipe out
@@ -286,65 +285,95 @@ public class Bitboard {
         }
         virtualCall = false; // set virtualization flag to false for future calls to movePiece()
 
-        int boardIndex = move.getMovedPieceType().ordinal();
-        int colorIndex = move.getMovedPieceColor().ordinal();
-        long enPassantBit = move.getEnPassant();
-        long from = move.getFromMask();
-        long to = move.getToMask();
+        int boardIndex = PackedMove.moved(move);
+        int colorIndex = PackedMove.colorIndex(move);
+        int promoted = PackedMove.promoted(move);
+        long enPassantBit = PackedMove.isEnPassant(move) ? 1L << PackedMove.enPassantSquare(move) : 0;
+        long from = PackedMove.fromMask(move);
+        long to = PackedMove.toMask(move);
+
+        if (verify && PackedMove.isCastle(move)) {
+            // The king can't castle out of check, or through a square that is attacked. The destination square is
+            // covered by the check after the move is applied.
+            long occupied = tempColorBoards[0] | tempColorBoards[1];
+            int fromSquare = Long.numberOfTrailingZeros(from);
+            if (isSquareAttacked(fromSquare, 1 - colorIndex, occupied)
+                    || isSquareAttacked((fromSquare + Long.numberOfTrailingZeros(to)) / 2, 1 - colorIndex, occupied))
+                throw new IllegalArgumentException("The king cannot castle out of or through check.");
+        }
+
+        long oldWhiteCastleRooks = tempBoards[0][6];
+        long oldBlackCastleRooks = tempBoards[1][6];
+        long oldEnPassantBoard = enPassantBoard;
         enPassantBoard = 0; // reset enPassantBoard back to default
 
 
-        if (move.getCastledRook() != Move.CastleSide.NONE)
-            castlePiece(move);
+        if (PackedMove.isCastle(move))
+            castlePiece(colorIndex, to > from);
         else {
             tempColorBoards[colorIndex] ^= to | from;
-            int capture = move.getCapturedPieceType().ordinal();
+            int capture = PackedMove.captured(move);
+            int fromSquare = Long.numberOfTrailingZeros(from);
+            int toSquare = Long.numberOfTrailingZeros(to);
+            mailbox[fromSquare] = EMPTY;
+            mailbox[toSquare] = (byte) ((colorIndex << 3) | boardIndex);
+            updateScores(colorIndex, boardIndex, fromSquare, -1);
+            updateScores(colorIndex, promoted == PackedMove.NO_PIECE ? boardIndex : promoted, toSquare, 1);
 
             if (capture != 6 && enPassantBit == 0) {
                 tempBoards[1 - colorIndex][capture] ^= to; // update temp board to removed captured piece
                 tempColorBoards[1 - colorIndex] ^= to;
+                updateScores(1 - colorIndex, capture, toSquare, -1);
 
                 // Append the temp board change to the history table, allowing a backtrack mechanism to undo said change
                 appendChange(1 - colorIndex, capture);
+
+                if ((tempBoards[1 - colorIndex][6] & to) != 0) {
+                    // A rook captured on its starting square takes the opponent's castling rights on that side with it
+                    tempBoards[1 - colorIndex][6] ^= to;
+                    appendChange(1 - colorIndex, 6);
+                }
             }
 
-            if (move.getMovedPieceType() == Piece.Type.PAWN) {
-                if (move.getPromotedType() != Piece.Type.NONE) // if pawn was promoted
-                    updatePawnPromotion(move);
+            if (boardIndex == 0) {
+                if (promoted != PackedMove.NO_PIECE) // if pawn was promoted
+                    updatePawnPromotion(colorIndex, promoted, from, to);
                 else if (enPassantBit != 0) {
                     // an en passant capture is made. update with the saved location of the captured pawn
                     tempBoards[1 - colorIndex][0] ^= enPassantBit;
                     tempColorBoards[1 - colorIndex] ^= enPassantBit;
+                    mailbox[Long.numberOfTrailingZeros(enPassantBit)] = EMPTY;
+                    updateScores(1 - colorIndex, 0, Long.numberOfTrailingZeros(enPassantBit), -1);
                     appendChange(1 - colorIndex, 0);
                 }
                 else // otherwise, check if pawn move changed possible en passant captures
                     checkEnPassantBoard(colorIndex, from, to);
             }
-            else if (move.getMovedPieceType() == Piece.Type.KING) {
+            else if (boardIndex == 5) {
                 // indicate that the king loses its castling privileges once it moves past its starting position.
                 tempBoards[colorIndex][6] = 0;
 
                 // update the change history stack
                 appendChange(colorIndex, 6);
-
-                // update the masks for possible king check positions
-                updateKingMasks(move);
             }
-            else if (move.getMovedPieceType() == Piece.Type.ROOK && tempBoards[colorIndex][6] != 0) {
+            else if (boardIndex == 3 && (tempBoards[colorIndex][6] & from) != 0) {
                 // Indicate that a rook looses its castling privileges once it moves past its starting position.
                 tempBoards[colorIndex][6] ^= from;
                 // add change to the history stack
                 appendChange(colorIndex, 6);
             }
 
-            // Append the original move to the tempBoard
-            tempBoards[colorIndex][boardIndex] ^= from | to;
-            // update the change history stack
-            appendChange(colorIndex, boardIndex);
+            if (promoted == PackedMove.NO_PIECE) {
+                // Append the original move to the tempBoard (promotions were already placed by updatePawnPromotion)
+                tempBoards[colorIndex][boardIndex] ^= from | to;
+                // update the change history stack
+                appendChange(colorIndex, boardIndex);
+            }
         }
+        updateZobristKey(move, oldWhiteCastleRooks, oldBlackCastleRooks, oldEnPassantBoard);
 
         // Finally, verify that the move that was applied did not put our king in check
-        if (kingMaskCheck(colorIndex)) {
+        if (verify && isKingInCheck(colorIndex)) {
             // if it did, undo the move that was made, unless the instance is a virtual one.
             if (virtualState) {
                 // if it is, apply the virtualLock to keep the current virtual instance, but signify no further changes
@@ -409,6 +438,7 @@ public class Bitboard {
      * elements.
      */
     private void discardChanges() {
+        boolean changed = changeHistSize > 0;
         while (changeHistSize > 0) {
             int boardIndex = changeHist[--changeHistSize];
             int colorIndex = changeHist[--changeHistSize];
@@ -416,6 +446,14 @@ public class Bitboard {
         }
         tempColorBoards[0] = whiteBoard;
         tempColorBoards[1] = blackBoard;
+        gameBoard = whiteBoard | blackBoard; // a virtual instance may have updated the game board
+        tempZobristKey = zobristKey;
+        tempPieceSquareScore = pieceSquareScore;
+        tempPhase = phase;
+        tempPawnKey = pawnKey;
+        enPassantBoard = savedEnPassantBoard;
+        if (changed)
+            rebuildMailbox(); // a virtual instance can span several moves, so the mailbox is rebuilt, not reversed
     }
 
     /**
@@ -425,14 +463,27 @@ public class Bitboard {
      * the game.
      */
     private void applyChanges() {
+        int frameBase = (undoTop & (UNDO_FRAMES - 1)) * UNDO_FRAME_SIZE;
         while (changeHistSize > 0) {
             int boardIndex = changeHist[--changeHistSize];
             int colorIndex = changeHist[--changeHistSize];
+            if (recordUndo) {
+                // Save the value being overwritten. If a board shows up more than once, only the first saved value is
+                // the original, but since unmakeMove() restores in reverse order that one is written last.
+                int frameIndex = frameBase + undoSizes[undoTop & (UNDO_FRAMES - 1)]++;
+                undoBoardIndices[frameIndex] = (colorIndex << 5) | boardIndex;
+                undoBoardValues[frameIndex] = boards[colorIndex][boardIndex];
+            }
             boards[colorIndex][boardIndex] = tempBoards[colorIndex][boardIndex];
         }
         whiteBoard = tempColorBoards[0];
         blackBoard = tempColorBoards[1];
         gameBoard = whiteBoard | blackBoard;
+        zobristKey = tempZobristKey;
+        pieceSquareScore = tempPieceSquareScore;
+        phase = tempPhase;
+        pawnKey = tempPawnKey;
+        savedEnPassantBoard = enPassantBoard;
     }
 
     /**
@@ -466,13 +517,17 @@ public class Bitboard {
      * to invoke movePiece() instead of virtualMovePiece() will always wipe the
      * virtualized instance and apply the move to the original board
      * permanently.
+     * </p><p>
+     * The move is expected to come from the move generator, which only
+     * produces legal moves, so it isn't checked for leaving the king in check.
+     * Use isMoveLegal() for moves from any other source.
      * </p>
      */
-    public void virtualMovePiece(Move move) throws IllegalArgumentException {
+    public void virtualMovePiece(int move) throws IllegalArgumentException {
         virtualState = true;
         virtualCall = true;
         if (!virtualLock) {
-            movePiece(move);
+            movePiece(move, false);
         }
         else {
             throw new IllegalArgumentException("Virtual lock is enabled. No further changes can be made for this instance.");
@@ -496,7 +551,7 @@ public class Bitboard {
         virtualState = true;
         virtualCall = true;
         try {
-            movePiece(move);
+            movePiece(PackedMove.fromMove(move), true);
             return true; // move successful and didn't lead to exception. maintain it's state for caller use
         }
         catch (IllegalArgumentException e) {
@@ -535,6 +590,153 @@ public class Bitboard {
         applyChanges();
     }
 
+    /**
+     * <p>
+     * Applies a move permanently, while pushing a frame onto the undo stack so
+     * the move can later be reversed by unmakeMove(). Only the boards touched
+     * by the move are saved (the same ones tracked by changeHist), so this is
+     * far cheaper than taking a SaveState, and nothing gets allocated.
+     * </p><p>
+     * Moves must be undone in the reverse order they were made. The stack is
+     * circular with a fixed number of frames, so only the most recent frames
+     * can be undone, which is all the search requires.
+     * </p><p>
+     * Like virtualMovePiece(), the move must be legal (as produced by the move
+     * generator), since it isn't checked.
+     * </p>
+     *
+     * @param move
+     *      packed move to apply to the board.
+     */
+    public void makeMove(int move) {
+        if (virtualState)
+            wipeVirtualization();
+
+        int frame = undoTop & (UNDO_FRAMES - 1);
+        undoSizes[frame] = 0;
+        undoWhiteBoards[frame] = whiteBoard;
+        undoBlackBoards[frame] = blackBoard;
+        undoEnPassantBoards[frame] = enPassantBoard;
+        undoZobristKeys[frame] = zobristKey;
+        undoPieceSquareScores[frame] = pieceSquareScore;
+        undoPhases[frame] = phase;
+        undoPawnKeys[frame] = pawnKey;
+
+        recordUndo = true;
+        movePiece(move, false);
+        recordUndo = false;
+        undoTop++;
+    }
+
+    /**
+     * Passes the turn without moving a piece (a null move), used by the
+     * search for null move pruning. Only the en passant board (a pass forfeits
+     * any en passant capture) and the Zobrist key change, so this pushes an
+     * undo frame with no boards in it, to be reversed by unmakeNullMove().
+     */
+    public void makeNullMove() {
+        if (virtualState)
+            wipeVirtualization();
+
+        int frame = undoTop & (UNDO_FRAMES - 1);
+        undoSizes[frame] = 0;
+        undoWhiteBoards[frame] = whiteBoard;
+        undoBlackBoards[frame] = blackBoard;
+        undoEnPassantBoards[frame] = enPassantBoard;
+        undoZobristKeys[frame] = zobristKey;
+        undoPieceSquareScores[frame] = pieceSquareScore;
+        undoPhases[frame] = phase;
+        undoPawnKeys[frame] = pawnKey;
+        undoTop++;
+
+        zobristKey ^= Zobrist.SIDE ^ Zobrist.enPassantKey(enPassantBoard) ^ Zobrist.enPassantKey(0);
+        tempZobristKey = zobristKey;
+        enPassantBoard = 0;
+        savedEnPassantBoard = 0;
+    }
+
+    /**
+     * Reverses the null move made by makeNullMove(), which must be the most
+     * recent move made.
+     *
+     * @throws IllegalStateException
+     *      If no move is on the undo stack.
+     */
+    public void unmakeNullMove() throws IllegalStateException {
+        if (undoTop == 0)
+            throw new IllegalStateException("No null move to undo");
+
+        int frame = --undoTop & (UNDO_FRAMES - 1);
+        enPassantBoard = undoEnPassantBoards[frame];
+        savedEnPassantBoard = enPassantBoard;
+        zobristKey = undoZobristKeys[frame];
+        tempZobristKey = zobristKey;
+    }
+
+    /**
+     * Reverses the most recent move applied with makeMove(), restoring exactly
+     * the boards that the move modified.
+     *
+     * @param move
+     *      the packed move being undone (must be the last one made).
+     * @throws IllegalStateException
+     *      If no move is on the undo stack, or the move doesn't match the
+     *      current board.
+     */
+    public void unmakeMove(int move) throws IllegalStateException {
+        if (virtualState)
+            wipeVirtualization();
+
+        int colorIndex = PackedMove.colorIndex(move);
+        if (undoTop == 0 || (tempColorBoards[colorIndex] & PackedMove.toMask(move)) == 0)
+            throw new IllegalStateException("Move being undone was not the last move made");
+
+        int frame = --undoTop & (UNDO_FRAMES - 1);
+        int frameBase = frame * UNDO_FRAME_SIZE;
+        for (int i = frameBase + undoSizes[frame] - 1; i >= frameBase; i--) {
+            int index = undoBoardIndices[i];
+            long value = undoBoardValues[i];
+            boards[index >>> 5][index & 31] = value;
+            tempBoards[index >>> 5][index & 31] = value;
+        }
+
+        whiteBoard = undoWhiteBoards[frame];
+        blackBoard = undoBlackBoards[frame];
+        tempColorBoards[0] = whiteBoard;
+        tempColorBoards[1] = blackBoard;
+        gameBoard = whiteBoard | blackBoard;
+        enPassantBoard = undoEnPassantBoards[frame];
+        savedEnPassantBoard = enPassantBoard;
+        zobristKey = undoZobristKeys[frame];
+        tempZobristKey = zobristKey;
+        pieceSquareScore = undoPieceSquareScores[frame];
+        tempPieceSquareScore = pieceSquareScore;
+        phase = undoPhases[frame];
+        tempPhase = phase;
+        pawnKey = undoPawnKeys[frame];
+        tempPawnKey = pawnKey;
+
+        // the move itself says what stood on each square it touched
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (PackedMove.isCastle(move)) {
+            int rank = 56 * colorIndex;
+            boolean kingSide = to > from;
+            mailbox[to] = EMPTY;
+            mailbox[rank + (kingSide ? 5 : 3)] = EMPTY;
+            mailbox[rank + (kingSide ? 7 : 0)] = (byte) ((colorIndex << 3) | 3);
+        }
+        else if (PackedMove.isEnPassant(move)) {
+            mailbox[to] = EMPTY;
+            mailbox[colorIndex == 0 ? to - 8 : to + 8] = (byte) ((1 - colorIndex) << 3); // the taken pawn
+        }
+        else {
+            int captured = PackedMove.captured(move);
+            mailbox[to] = captured == PackedMove.NO_PIECE ? EMPTY : (byte) (((1 - colorIndex) << 3) | captured);
+        }
+        mailbox[from] = (byte) ((colorIndex << 3) | PackedMove.moved(move));
+    }
+
     /**
      * <p>
      * Returns a SaveState object that contains a hard copy for the current
@@ -550,8 +752,7 @@ public class Bitboard {
      * @return SaveState
      */
     public SaveState saveCurrentState() {
-        // TODO: refactor to move virtualization with circular queue.
-        return new SaveState(tempBoards, tempColorBoards, enPassantBoard);
+        return new SaveState(tempBoards, tempColorBoards, enPassantBoard, tempZobristKey);
     }
 
     /**
@@ -568,17 +769,19 @@ public class Bitboard {
      *      object from a previous state the board was in.
      */
     public void restoreSaveState(SaveState saveState) {
-        // TODO: refactor to move virtualization with circular stack.
         virtualLock = false;
         virtualState = false;
 
-        System.arraycopy(saveState.boards[0], 0, this.boards[0], 0, 18);
-        System.arraycopy(saveState.boards[1], 0, this.boards[1], 0, 18);
+        System.arraycopy(saveState.boards[0], 0, this.boards[0], 0, BOARD_COUNT);
+        System.arraycopy(saveState.boards[1], 0, this.boards[1], 0, BOARD_COUNT);
         System.arraycopy(saveState.colorBoards, 0, tempColorBoards, 0, 2);
 
         this.enPassantBoard = saveState.epBoard;
+        savedEnPassantBoard = saveState.epBoard;
+        zobristKey = saveState.zobristKey;
+        tempZobristKey = saveState.zobristKey;
 
-        for (int i = 0; i < 18; i++) {
+        for (int i = 0; i < BOARD_COUNT; i++) {
             tempBoards[0][i] = boards[0][i];
             tempBoards[1][i] = boards[1][i];
         }
@@ -586,25 +789,83 @@ public class Bitboard {
         blackBoard = tempColorBoards[1];
         gameBoard = whiteBoard | blackBoard;
         changeHistSize = 0;
+        rebuildMailbox();
+        computeScores();
+    }
+
+    /**
+     * Computes the evaluation accumulators from scratch, from the mailbox.
+     * Like computeZobristKey(), this is only needed when a position is
+     * created, since every move afterward updates them incrementally.
+     */
+    private void computeScores() {
+        tempPieceSquareScore = 0;
+        tempPhase = 0;
+        tempPawnKey = 0;
+        for (int square = 0; square < 64; square++) {
+            if (mailbox[square] != EMPTY)
+                updateScores(mailbox[square] >>> 3, mailbox[square] & 7, square, 1);
+        }
+        pieceSquareScore = tempPieceSquareScore;
+        phase = tempPhase;
+        pawnKey = tempPawnKey;
     }
 
     /**
-     * Castles the king in the king side or queen side configuration as indicated by the Move input. This will also
-     * update the king masking bits to their precomputed default values. These changes are made to the temporary boards
-     * array, with the history stack updated, and will be verified for legality by movePiece.
+     * Adds a piece to (or removes one from) the temp evaluation accumulators
+     * and the temp pawn key.
      *
-     * @param move
-     *      Reference move that was castled (move.getCastledRook() != NONE)
+     * @param colorIndex
+     *      color index of the piece.
+     * @param type
+     *      type ordinal of the piece.
+     * @param square
+     *      square the piece stands on.
+     * @param sign
+     *      1 to add the piece; -1 to remove it.
+     */
+    private void updateScores(int colorIndex, int type, int square, int sign) {
+        tempPieceSquareScore += sign * Evaluator.pieceSquareValue(colorIndex, type, square);
+        tempPhase += sign * Evaluator.phaseWeight(type);
+        if (type == 0)
+            tempPawnKey ^= Zobrist.PIECES[colorIndex][0][square]; // XOR both adds and removes the pawn
+    }
+
+    /**
+     * Rebuilds the mailbox from tempBoards, for when the position changes in
+     * a way that isn't tracked square by square.
      */
-    private void castlePiece(Move move) {
-        if (move.getMovedPieceColor() == Piece.Color.WHITE) {
+    private void rebuildMailbox() {
+        Arrays.fill(mailbox, (byte) EMPTY);
+        for (int colorIndex = 0; colorIndex < 2; colorIndex++) {
+            for (int type = 0; type < 6; type++) {
+                long pieces = tempBoards[colorIndex][type];
+                while (pieces != 0) {
+                    mailbox[Long.numberOfTrailingZeros(pieces)] = (byte) ((colorIndex << 3) | type);
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Castles the king in the king side or queen side configuration as indicated by the parameters. These changes are
+     * made to the temporary boards array, with the history stack updated.
+     *
+     * @param colorIndex
+     *      color index of the side castling.
+     * @param kingSide
+     *      true if castling king side; false if queen side.
+     */
+    private void castlePiece(int colorIndex, boolean kingSide) {
+        if (colorIndex == 0) {
             tempBoards[0][6] = 0; // indicate that white can no longer castle
-            if (move.getCastledRook() == Move.CastleSide.QUEEN_SIDE) {
+            if (!kingSide) {
                 // Castled Queen side
                 tempBoards[0][3] ^= 0x01; // remove original rook
                 tempBoards[0][3] |= 0x08; // add the castled rooks new location
                 tempBoards[0][5]  = 0x04; // add the king's location
-                tempColorBoards[0] ^= 0x0F; // update the white color board
+                tempColorBoards[0] ^= 0x1D; // update the white color board (a1, c1, d1, e1)
             }
             else {
                 // Castled King side
@@ -616,98 +877,91 @@ public class Bitboard {
         }
         else {
             tempBoards[1][6] = 0; // indicate that black can no longer castle
-            if (move.getCastledRook() == Move.CastleSide.QUEEN_SIDE) {
+            if (!kingSide) {
                 // Castled Queen side
                 tempBoards[1][3] ^= 0x0100000000000000L; // remove original rook
                 tempBoards[1][3] |= 0x0800000000000000L; // add the castled rooks new location
                 tempBoards[1][5]  = 0x0400000000000000L; // add the king's location
-                tempColorBoards[1] ^= 0x0F00000000000000L; // update the black color board
+                tempColorBoards[1] ^= 0x1D00000000000000L; // update the black color board (a8, c8, d8, e8)
             }
             else {
                 // Castled King side
-                tempBoards[0][3] ^= 0x8000000000000000L; // remove original rook
-                tempBoards[0][3] |= 0x2000000000000000L; // add the castled rooks new location
-                tempBoards[0][5]  = 0x4000000000000000L; // add the king's location
-                tempColorBoards[0] ^= 0xF000000000000000L; // update the black color board
+                tempBoards[1][3] ^= 0x8000000000000000L; // remove original rook
+                tempBoards[1][3] |= 0x2000000000000000L; // add the castled rooks new location
+                tempBoards[1][5]  = 0x4000000000000000L; // add the king's location
+                tempColorBoards[1] ^= 0xF000000000000000L; // update the black color board
             }
         }
-        int colorIndex = move.getMovedPieceColor().ordinal();
+
+        int rank = 56 * colorIndex;
+        mailbox[rank + 4] = EMPTY;
+        mailbox[rank + (kingSide ? 7 : 0)] = EMPTY;
+        mailbox[rank + (kingSide ? 6 : 2)] = (byte) ((colorIndex << 3) | 5);
+        mailbox[rank + (kingSide ? 5 : 3)] = (byte) ((colorIndex << 3) | 3);
+        updateScores(colorIndex, 5, rank + 4, -1);
+        updateScores(colorIndex, 5, rank + (kingSide ? 6 : 2), 1);
+        updateScores(colorIndex, 3, rank + (kingSide ? 7 : 0), -1);
+        updateScores(colorIndex, 3, rank + (kingSide ? 5 : 3), 1);
 
         // Update the changes to history stack accordingly
-        changeHist[changeHistSize++] = colorIndex;
-        changeHist[changeHistSize++] = 3; // changed the rook mask
-        changeHist[changeHistSize++] = colorIndex;
-        changeHist[changeHistSize++] = 5; // changed the king mask
-        changeHist[changeHistSize++] = colorIndex;
-        changeHist[changeHistSize++] = 6; // changed the castle check mask
+        appendChange(colorIndex, 3); // changed the rook mask
+        appendChange(colorIndex, 5); // changed the king mask
+        appendChange(colorIndex, 6); // changed the castle check mask
+    }
 
-        updateKingMasksCastle(move);
+    /**
+     * Looks up the piece standing on a square of the current (possibly
+     * virtual) position, straight from the mailbox. Nothing is allocated, so
+     * this is cheap enough for move generation and evaluation.
+     *
+     * @param square
+     *      square index (0 = a1, 63 = h8).
+     * @return (colorIndex << 3) | type ordinal of the piece, or EMPTY. The
+     *      type is code & 7 and the color index code >>> 3.
+     */
+    public int pieceAt(int square) {
+        return mailbox[square];
     }
 
     /**
      * When given a board position, this will return the game piece that
      * corresponds to any piece that may exist at that coordinate, otherwise it
-     * will return null.
+     * will return null. Pieces are immutable, so a shared instance is returned
+     * for each type and color.
      *
      * @param mask
      *      bit mask to check for a piece's location of.
      * @return Piece if exists, null otherwise
      */
     public Piece getPiece(long mask) {
-        if ((gameBoard & mask) != 0) {
-            Piece.Color color;
-            long[] pieceBitboards;
+        if (mask == 0)
+            return null;
 
-            if ((tempColorBoards[0] & mask) != 0) {
-                color = Piece.Color.WHITE;
-                pieceBitboards = tempBoards[0];
-            }
-            else {
-                color = Piece.Color.BLACK;
-                pieceBitboards = tempBoards[1];
-            }
-
-            for (int i = 0; i < 6; i++) {
-                if ((pieceBitboards[i] & mask) != 0)
-                    return new Piece(pieceTypeArr[i], color); // piece type same as bitboard index
-            }
-            throw new IllegalStateException(); // thrown in any impossible states that would otherwise be ignored by a
-                                               // null return.
-        }
-        return null; // no piece at that position
+        return PIECES[mailbox[Long.numberOfTrailingZeros(mask)]]; // EMPTY maps to null
     }
 
     /**
      * When a move is marked for pawn promotion, it is passed into this private
      * method so that the modifications get made to the bitboards.
      *
-     * @param move
-     *      of a pawn to a promoted state.
+     * @param colorIndex
+     *      color index of the promoting pawn.
+     * @param promotedType
+     *      type ordinal of the piece promoted to.
+     * @param from
+     *      masking bit for the pawn's original position.
+     * @param to
+     *      masking bit for the promotion square.
      */
-    private void updatePawnPromotion(Move move) {
-        int promotedType = move.getPromotedType().ordinal();
-        int colorIndex = move.getMovedPieceColor().ordinal();
-        Piece.Type capturedPiece = move.getCapturedPieceType();
-        long from = move.getFromMask();
-        long to = move.getToMask();
-
-        if (capturedPiece != Piece.Type.NONE) {
-            // captured piece and promoted pawn
-            tempBoards[1 - colorIndex][capturedPiece.ordinal()] ^= to; // remove the captured piece
-
-            // Update the history stack to indicate changes made to tempBoards
-            changeHist[changeHistSize++] = 1 - colorIndex;
-            changeHist[changeHistSize++] = capturedPiece.ordinal();
-        }
-
+    private void updatePawnPromotion(int colorIndex, int promotedType, long from, long to) {
+        // Any captured piece was already removed by movePiece()
         tempBoards[colorIndex][0] ^= from; // remove the pawn
         tempBoards[colorIndex][promotedType] |= to; // add the promoted piece
+        mailbox[Long.numberOfTrailingZeros(to)] = (byte) ((colorIndex << 3) | promotedType);
 
         // Update the history stack to indicate changes made to tempBoards
-        changeHist[changeHistSize++] = colorIndex;
-        changeHist[changeHistSize++] = 0;
-        changeHist[changeHistSize++] = colorIndex;
-        changeHist[changeHistSize++] = promotedType;
+        appendChange(colorIndex, 0);
+        appendChange(colorIndex, promotedType);
     }
 
     /**
@@ -822,414 +1076,254 @@ public class Bitboard {
 
     /**
      * When passed a color's ordinal value (i.e.: index), this will determine if
-     * that color's king is in a checked position. The masks are initialized to
-     * their default values, and only transformed for any king moves during the
-     * game.
+     * that color's king is in a checked position, by looking up whether any
+     * opponent piece attacks the king's square.
      *
      * @param colorIndex
      *      Color ordinal value of king to inspect.
      * @return true if king is in check; false otherwise.
      */
-    public boolean kingMaskCheck(int colorIndex) {
-        long tempGameBoard = tempColorBoards[0] | tempColorBoards[1];
-        long colorBoard = tempColorBoards[colorIndex];
-        long oppColorBoard = tempColorBoards[1 - colorIndex];
-        long kUp     = tempBoards[colorIndex][9];
-        long kDown   = tempBoards[colorIndex][10];
-        long kLeft   = tempBoards[colorIndex][11];
-        long kRight  = tempBoards[colorIndex][12];
-        long diagUL  = tempBoards[colorIndex][13];
-        long diagUR  = tempBoards[colorIndex][14];
-        long diagLL  = tempBoards[colorIndex][15];
-        long diagLR  = tempBoards[colorIndex][16];
-        long knights = tempBoards[colorIndex][17];
-
-        long kUpPiece = (kUp & tempGameBoard) & -(kUp & tempGameBoard);
-        if ((oppColorBoard & kUpPiece) != 0) {
-            // See if king is vulnerable above and check to see if an opposing piece of threat is above
-
-            // Only candidates for check are enemy Queen or Rook
-            return (kUpPiece & tempBoards[1 - colorIndex][3]) != 0 // piece is a rook
-                || (kUpPiece & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
-        }
-
-        long kDownPieces = kDown & tempGameBoard;
-        if ((colorBoard & kDownPieces) < (oppColorBoard & kDownPieces)) {
-            // if our pieces are less than the opp pieces (for kDown), the opp piece is higher up than ours.
-
-            // We know opposing piece is below, but need to check which one is of direct threat along the attack vector.
-            long kingPos = tempBoards[colorIndex][5];
-            long pieceOfThreat = getMSB(oppColorBoard & kDownPieces, kingPos, 8);
-
-            // Only candidates of threat are Rook or Queen
-            return (pieceOfThreat & tempBoards[1 - colorIndex][3]) != 0 // piece is a rook
-                || (pieceOfThreat & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
-        }
-
-        long kLeftPieces = kLeft & tempGameBoard;
-        if ((colorBoard & kLeftPieces) < (oppColorBoard & kLeftPieces)) {
-            // opponent has a piece in front of our own along the attack vector.
-
-            // find the position of the piece of direct threat to the king
-            long kingPos = tempBoards[colorIndex][5];
-            long pieceOfThreat = getMSB(kLeftPieces, kingPos, 1);
-
-            // Only candidates of threat are Rook or Queen
-            return (pieceOfThreat & tempBoards[1 - colorIndex][3]) != 0 // piece is a rook
-                || (pieceOfThreat & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
-        }
-
-        long kRightPiece = (kRight & tempGameBoard) & -(kRight & tempGameBoard);
-        if ((oppColorBoard & kRightPiece) != 0) {
-            // King is vulnerable to the right, and an enemy piece is of direct threat
-
-            // Only candidates of threat are Rook or Queen
-            return (kRightPiece & tempBoards[1 - colorIndex][3]) != 0 // piece is a rook
-                || (kRightPiece & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
-        }
-
-
-        long diagULPiece = (diagUL & tempGameBoard) & -(diagUL & tempGameBoard);
-        if ((oppColorBoard & diagULPiece) != 0) {
-            // King is compromised on the upper left diagonal
-
-            // See if opposing color piece has attack on King
-
-            // Can be a pawn if diagULPiece == kingPos >> 7 (for white or black)
-            if (diagULPiece == (tempBoards[colorIndex][5] >> 7)) {
-                return (diagULPiece & tempBoards[1 - colorIndex][0]) != 0 // piece is a pawn
-                    || (diagULPiece & tempBoards[1 - colorIndex][2]) != 0 // piece is a bishop
-                    || (diagULPiece & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
-            }
+    public boolean isKingInCheck(int colorIndex) {
+        long king = tempBoards[colorIndex][5];
+        return king != 0 && isSquareAttacked(Long.numberOfTrailingZeros(king), 1 - colorIndex,
+                tempColorBoards[0] | tempColorBoards[1]);
+    }
 
-            // Can be a Bishop or Queen in any compromised square
-            return (diagULPiece & tempBoards[1 - colorIndex][2]) != 0 // piece is a bishop
-                || (diagULPiece & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
-        }
+    /**
+     * Determines if any piece of the given color attacks a square. Each piece
+     * type is looked up from the square outward (a piece attacks the square
+     * iff the same piece on the square would attack it back), with pawns
+     * using the opposite color's attacks.
+     *
+     * @param square
+     *      index of the square (0-63).
+     * @param attackerIndex
+     *      color ordinal of the attacking side.
+     * @param occupied
+     *      occupancy used for the sliding pieces. Passing a board without the
+     *      defending king allows sliders to see through it.
+     * @return true if the square is attacked; false otherwise.
+     */
+    public boolean isSquareAttacked(int square, int attackerIndex, long occupied) {
+        long[] attackers = tempBoards[attackerIndex];
+        return (AttackTables.pawnAttacks(1 - attackerIndex, square) & attackers[0]) != 0
+            || (AttackTables.knightAttacks(square) & attackers[1]) != 0
+            || (AttackTables.kingAttacks(square) & attackers[5]) != 0
+            || (AttackTables.rookAttacks(square, occupied) & (attackers[3] | attackers[4])) != 0
+            || (AttackTables.bishopAttacks(square, occupied) & (attackers[2] | attackers[4])) != 0;
+    }
 
-        long diagURPiece = (diagUR & tempGameBoard) & -(diagUR & tempGameBoard);
-        if ((oppColorBoard & diagURPiece) != 0) {
-            // King is compromised on the upper right diagonal
+    /**
+     * Finds every piece (of either color) attacking a square.
+     *
+     * @param square
+     *      index of the square (0-63).
+     * @param occupied
+     *      occupancy used for the sliding pieces.
+     * @return mask of the attacking pieces.
+     */
+    public long attackersTo(int square, long occupied) {
+        long[] white = tempBoards[0];
+        long[] black = tempBoards[1];
+        return (AttackTables.pawnAttacks(1, square) & white[0])
+             | (AttackTables.pawnAttacks(0, square) & black[0])
+             | (AttackTables.knightAttacks(square) & (white[1] | black[1]))
+             | (AttackTables.kingAttacks(square) & (white[5] | black[5]))
+             | (AttackTables.rookAttacks(square, occupied) & (white[3] | white[4] | black[3] | black[4]))
+             | (AttackTables.bishopAttacks(square, occupied) & (white[2] | white[4] | black[2] | black[4]));
+    }
 
-            // Can be a pawn if diagULPiece == kingPos >> 9 (for white or black)
-            if (diagURPiece == (tempBoards[colorIndex][5] >> 9)) {
-                return (diagURPiece & tempBoards[1 - colorIndex][0]) != 0 // piece is a pawn
-                    || (diagURPiece & tempBoards[1 - colorIndex][2]) != 0 // piece is a bishop
-                    || (diagURPiece & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
+    /**
+     * Finds the pieces pinned to the king of the given color. An opponent
+     * slider that would attack the king through exactly one of its own pieces
+     * pins that piece, which may then only move along the ray between the
+     * king and the slider (capturing the slider included).
+     *
+     * @param colorIndex
+     *      color ordinal of the king.
+     * @param pinRays
+     *      optional array (indexed by square) that receives the ray each
+     *      pinned piece is restricted to. Only entries for pinned squares are
+     *      written. May be null.
+     * @return mask of the pinned pieces.
+     */
+    public long pinnedPieces(int colorIndex, long[] pinRays) {
+        long king = tempBoards[colorIndex][5];
+        if (king == 0)
+            return 0;
+
+        int kingSquare = Long.numberOfTrailingZeros(king);
+        long[] opp = tempBoards[1 - colorIndex];
+        long oppBoard = tempColorBoards[1 - colorIndex];
+        long occupied = tempColorBoards[0] | tempColorBoards[1];
+
+        // Sliders that would attack the king if only opponent pieces were on the board
+        long snipers = (AttackTables.rookAttacks(kingSquare, oppBoard) & (opp[3] | opp[4]))
+                     | (AttackTables.bishopAttacks(kingSquare, oppBoard) & (opp[2] | opp[4]));
+
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            long ray = AttackTables.between(kingSquare, sniper);
+            long blockers = ray & occupied;
+            if ((blockers & (blockers - 1)) == 0 && (blockers & tempColorBoards[colorIndex]) != 0) {
+                pinned |= blockers;
+                if (pinRays != null)
+                    pinRays[Long.numberOfTrailingZeros(blockers)] = ray | (snipers & -snipers);
             }
-
-            // Can be a Bishop or Queen in any other compromised square
-            return (diagURPiece & tempBoards[1 - colorIndex][2]) != 0 // piece is a bishop
-                || (diagURPiece & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
+            snipers &= snipers - 1;
         }
-
-        long diagLLPieces = diagLL & tempGameBoard;
-        if ((colorBoard & diagLLPieces) < (oppColorBoard & diagLLPieces)) {
-            // King is exposed on the lower left diagonal.
-
-            long kingPos = tempBoards[colorIndex][5];
-            long pieceOfThreat = getMSB(oppColorBoard & diagLLPieces, kingPos, 9);
-
-            // King only in check to enemy bishop or queen on the attack vector
-            return (pieceOfThreat & tempBoards[1 - colorIndex][2]) != 0 // piece is a bishop
-                || (pieceOfThreat & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
-        }
-
-        long diagLRPieces = diagLR & tempGameBoard;
-        if ((colorBoard & diagLRPieces) < (oppColorBoard & diagLRPieces)) {
-            // King is exposed on the lower right diagonal.
-
-            long kingPos = tempBoards[colorIndex][5];
-            long pieceOfThreat = getMSB(oppColorBoard & diagLRPieces, kingPos, 7);
-
-            // King only in check to enemy bishop or queen along the attack vector
-            return (pieceOfThreat & tempBoards[1 - colorIndex][2]) != 0 // piece is a bishop
-                || (pieceOfThreat & tempBoards[1 - colorIndex][4]) != 0;// piece is a queen
-        }
-        // Check to see if any of the opponents knights have a check position on the king.
-        return (tempBoards[1 - colorIndex][1] & knights) != 0;
+        return pinned;
     }
 
     /**
-     * <p>
-     * Acquires the MSB from a mask relating to a kings potential vulnerable
-     * squares. The step size relates to the direction of the kingMask, from the
-     * king's starting square. The MSB for the mask is associated with the first
-     * piece closest to the king along the direction of vulnerability.
-     * </p><p>
-     * Note, usage requires a kingMask != 0. In other words, there must be a 1
-     * following in the direction of the step size, otherwise an exception will
-     * be thrown.
-     * </p><p>
-     * These are the only permitted mask directions as well as their associated
-     * step size:
-     * <ul>
-     * <li>Down: step = 8</li>
-     * <li>Left: step = 1</li>
-     * <li>Lower-Left Diagonal: step = 9</li>
-     * <li>Lower-Right Diagonal: step = 7</li>
-     * </ul></p>
+     * Determines if the given side has any piece besides its king and pawns.
+     * Positions without one are where zugzwang (being worse off for having
+     * to move) is common, so the search doesn't assume a pass is harmless
+     * there.
      *
-     * @param kingMask
-     *      Mask associated with a permitted direction (without king bit)
-     * @param kingPos
-     *      Single Bit for vulnerable king's position
-     * @param step
-     *      Right shift step size based on direction from the kings position
-     * @return Mask for piece of direct threat in the given direction
+     * @param colorIndex
+     *      color index of the side to check.
+     * @return true if a knight, bishop, rook or queen remains; false otherwise.
      */
-    private long getMSB(long kingMask, long kingPos, int step) {
-        if ((kingPos & kingMask) != 0)
-            return kingPos & kingMask;
-
-        if (kingPos == 0)
-            throw new IllegalStateException("Invalid king mask");
-
-        return getMSB(kingMask, kingPos >>> step, step);
+    public boolean hasNonPawnMaterial(int colorIndex) {
+        return (tempColorBoards[colorIndex] ^ tempBoards[colorIndex][0] ^ tempBoards[colorIndex][5]) != 0;
     }
 
     /**
-     * Simple method to return if either the white or black king is no longer
-     * there, indicating the game has hit an end state.
+     * Material and piece placement balance of the current (possibly virtual)
+     * position, from white's point of view, with the middlegame and endgame
+     * sums packed together (see Evaluator.pieceSquareValue()). It is
+     * maintained incrementally by movePiece().
      *
-     * @return true if both kings on the board; false otherwise.
+     * @return tempPieceSquareScore
      */
-    public boolean kingMissing() {
-        return tempBoards[0][5] == 0 || tempBoards[1][5] == 0;
+    public int getPieceSquareScore() {
+        return tempPieceSquareScore;
     }
 
     /**
-     * <p>
-     * Updates each of king's masks corresponding to the color of the move. This
-     * method will be called iff the king from either side is moved, whether by
-     * castling or normal means.
-     * </p><p>
-     * These masks represent the vulnerable squares based on directions the king
-     * could be attacked from. When used with isKingInCheck(), the process of
-     * seeing whether an attacking piece has a check position on the king
-     * becomes trivial.
-     * </p><p>
-     * The bitwise calculations to determine mask transformations are
-     * complicated, but local variables were added to aid in interpretation.
-     * </p>
+     * Game phase of the current (possibly virtual) position: the non-pawn
+     * material of both sides, weighted by Evaluator.phaseWeight(). It is
+     * maintained incrementally by movePiece().
      *
-     * @param move
-     *      Move from either king
+     * @return tempPhase
      */
-    private void updateKingMasks(Move move) {
-        int colorIndex = move.getMovedPieceColor().ordinal();
-        long oldPos = move.getFromMask();
-        long newPos = move.getToMask();
-
-        long rightBoundXor = 0x0101010101010101L;  // illegal col 0 for diagLR and diagUR
-        long leftBoundXor  = 0x8080808080808080L;  // illegal col 7 for diagLL and diagUL
-
-        KingMoveDir moveDirection = findKingDirection(oldPos, newPos);
-
-        long[] kingMask = tempBoards[colorIndex];
-
-        // local variables to aid in readability
-        long kUp     = kingMask[9]; // mask UP
-        long kDown   = kingMask[10]; // mask DOWN
-        long kLeft   = kingMask[11]; // mask LEFT
-        long kRight  = kingMask[12]; // mask RIGHT
-        long diagUL  = kingMask[13]; // mask UPPER LEFT
-        long diagUR  = kingMask[14]; // mask UPPER RIGHT
-        long diagLL  = kingMask[15]; // mask LOWER LEFT
-        long diagLR  = kingMask[16]; // mask LOWER RIGHT
-        long knights = kingMask[17]; // mask KNIGHT SQUARES
-
-        if (moveDirection == KingMoveDir.UP) {
-            kingMask[9]  = newPos ^ kUp;
-            kingMask[10] = oldPos | kDown;
-
-            kingMask[11] = kLeft  << 8;
-            kingMask[12] = kRight << 8;
-
-            kingMask[13] = diagUL << 8;
-            kingMask[14] = diagUR << 8;
-
-            kingMask[15] = (oldPos >>> 1) | (diagLL << 8);
-            kingMask[16] = (oldPos << 1)  | (diagLR << 8);
-
-            kingMask[17] = (knights << 8) | (oldPos << 2) | (oldPos >>> 2) | (oldPos >>> 7) | (oldPos >>> 9);
-        }
-        else if (moveDirection == KingMoveDir.DOWN) {
-            kingMask[9]  = oldPos | kUp;
-            kingMask[10] = newPos ^ kDown;
-
-            kingMask[11] = kLeft  >>> 8;
-            kingMask[12] = kRight >>> 8;
-
-            kingMask[13] = (oldPos >>> 1) | (diagUL >>> 8);
-            kingMask[14] = (oldPos << 1)  | (diagUR >>> 8);
-
-            kingMask[15] = diagLL >>> 8;
-            kingMask[16] = diagLR >>> 8;
-
-            kingMask[17] = (knights >>> 8) | (oldPos << 2) | (oldPos >>> 2) | (oldPos << 7) | (oldPos << 9);
-        }
-        else if (moveDirection == KingMoveDir.LEFT) {
-            kingMask[9]  = kUp   >>> 1;
-            kingMask[10] = kDown >>> 1;
-
-            kingMask[11] = kLeft  ^ newPos;
-            kingMask[12] = kRight | oldPos;
-
-            kingMask[13] = (diagUL >>> 1) & ~leftBoundXor;
-            kingMask[14] = (oldPos | diagUR) << 8;
-
-            kingMask[15] = (diagLL >>> 1) & ~leftBoundXor;
-            kingMask[16] = (oldPos | diagLR) >>> 8;
-
-            kingMask[17] = (knights >>> 1) & ~leftBoundXor;
-        }
-        else if (moveDirection == KingMoveDir.RIGHT) {
-            kingMask[9]  = kUp   << 1;
-            kingMask[10] = kDown << 1;
-
-            kingMask[11] = kLeft | oldPos;
-            kingMask[12] = kRight ^ newPos;
-
-            kingMask[13] = (oldPos | diagUL) << 8;
-            kingMask[14] = (diagUR << 1) & ~rightBoundXor;
-
-            kingMask[15] = (oldPos | diagLL) >>> 8;
-            kingMask[16] = (diagLR << 1) & ~rightBoundXor;
-
-            kingMask[17] = (knights << 8) & ~rightBoundXor;
-        }
-        else if (moveDirection == KingMoveDir.UPPER_LEFT) {
-            kingMask[9]  = (kUp >>> 1) ^ newPos;
-            kingMask[10] = (kDown | oldPos) >>> 1;
-
-            kingMask[11] = (kLeft << 8) ^ newPos;
-            kingMask[12] = (kRight | oldPos) << 8;
-
-            kingMask[13] = diagUL ^ newPos;
-            kingMask[14] = (oldPos | diagUR) << 16;
-
-            kingMask[15] = ((oldPos | diagLL) >>> 2) & ~(leftBoundXor | (leftBoundXor >>> 1));
-            kingMask[16] = diagLR | oldPos;
-
-            kingMask[17] = (((knights << 7) | (oldPos >>> 3) | (oldPos >>> 10)) & ~(leftBoundXor | (leftBoundXor >>> 1)))
-                    | (oldPos << 24)  | (oldPos >>> 8)
-                    | (((oldPos << 1) | (oldPos << 17)) & ~rightBoundXor) ;
-        }
-        else if (moveDirection == KingMoveDir.UPPER_RIGHT) {
-            kingMask[9]  = (kUp << 1) ^ newPos;
-            kingMask[10] = (kDown | oldPos) << 1;
-
-            kingMask[11] = (kLeft | oldPos) << 8;
-            kingMask[12] = (kRight << 8) ^ newPos;
-
-            kingMask[13] = (oldPos | diagUL) << 16;
-            kingMask[14] = diagUR ^ newPos;
-
-            kingMask[15] = diagLL | oldPos;
-            kingMask[16] = ((oldPos | diagLR) << 2) & ~(rightBoundXor | (rightBoundXor << 1));
-
-            kingMask[17] = (((oldPos >>> 1) | (oldPos << 15)) & ~leftBoundXor)
-                    | (oldPos >>> 8) | (oldPos << 24)
-                    | (((oldPos << 3) | (knights << 9) | (oldPos >>> 6)) & ~(rightBoundXor | (rightBoundXor << 1)));
-        }
-        else if (moveDirection == KingMoveDir.LOWER_LEFT) {
-            kingMask[9]  = (kUp | oldPos) >>> 1;
-            kingMask[10] = (kDown >>> 1) ^ newPos;
-
-            kingMask[11] = (kLeft >>> 8) ^ newPos;
-            kingMask[12] = (kRight | oldPos) >>> 8;
-
-            kingMask[13] = ((oldPos | diagUL) >>> 2) & ~(leftBoundXor | (leftBoundXor >>> 1));
-            kingMask[14] = oldPos | diagUR;
-
-            kingMask[15] = diagLL ^ newPos;
-            kingMask[16] = (oldPos | diagLR) >>> 16;
-
-            kingMask[17] = (((knights >>> 9) | (oldPos >>> 3) | (oldPos << 6)) & ~(leftBoundXor | (leftBoundXor >>> 1)))
-                    | (oldPos >>> 24) | (oldPos << 8)
-                    | (((oldPos << 1) | (oldPos >>> 15)) & ~rightBoundXor);
-        }
-        else {// moveDirection == KingMoveDir.LOWER_RIGHT
-            kingMask[9]  = (kUp | oldPos) << 1;
-            kingMask[10] = (kDown << 1) ^ newPos;
-
-            kingMask[11] = (kLeft | oldPos) >>> 8;
-            kingMask[12] = (kRight >>> 8) ^ newPos;
-
-            kingMask[13] = ((oldPos | diagUR) << 2) & ~(rightBoundXor | (rightBoundXor << 1));
-            kingMask[14] = diagUL | oldPos;
-
-            kingMask[15] = (oldPos | diagLL) >>> 16;
-            kingMask[16] = diagLR ^ newPos;
+    public int getPhase() {
+        return tempPhase;
+    }
 
-            kingMask[17] = (((oldPos >>> 1) | (oldPos >>> 17))  & ~leftBoundXor)
-                    | (oldPos << 8) | (oldPos >>> 24)
-                    | (((knights >>> 7) | (oldPos << 3) | (oldPos << 10)) & ~(rightBoundXor | rightBoundXor << 1));
-        }
+    /**
+     * Zobrist hash of only the pawns of the current (possibly virtual)
+     * position, which changes far less often than the full key. It is
+     * maintained incrementally by movePiece().
+     *
+     * @return tempPawnKey
+     */
+    public long getPawnKey() {
+        return tempPawnKey;
+    }
 
-        // Make sure to update these changes to the change history stack
-        for (int i = 9; i <= 17; i++)
-            appendChange(colorIndex, i);
+    /**
+     * Returns the Zobrist hash for the current (possibly virtual) position.
+     * It is maintained incrementally by movePiece(), so reading it is free.
+     *
+     * @return tempZobristKey
+     */
+    public long getZobristKey() {
+        return tempZobristKey;
     }
 
     /**
-     * Given a from and to position, this returns the KingMoveDir enum
-     * corresponding to the king's local axis of movement. If the king's
-     * movement is not one a legal movement, an exception will be thrown, as
-     * this should never occur under normal circumstances.
+     * Computes the Zobrist hash of a position from scratch (with white to
+     * move). This is only needed when a position is created, since every
+     * move afterward updates the key incrementally.
      *
-     * @param from
-     *      single bit for king's original position.
-     * @param to
-     *      single bit for king's new position.
-     * @return KingMoveDir
+     * @param boards
+     *      board masks of the position, indexed as in the boards array.
+     * @param enPassantBoard
+     *      en passant board of the position.
+     * @return Zobrist hash of the position.
      */
-    private KingMoveDir findKingDirection(long from, long to) {
-        if (to == (from << 8))
-            return KingMoveDir.UP;
-        else if (to == (from >>> 8))
-            return KingMoveDir.DOWN;
-        else if (to == (from >>> 1))
-            return KingMoveDir.LEFT;
-        else if (to == (from << 1))
-            return KingMoveDir.RIGHT;
-        else if (to == (from << 7))
-            return KingMoveDir.UPPER_LEFT;
-        else if (to == (from << 9))
-            return KingMoveDir.UPPER_RIGHT;
-        else if (to == (from >>> 9))
-            return KingMoveDir.LOWER_LEFT;
-        else if (to == (from >>> 7))
-            return KingMoveDir.LOWER_RIGHT;
-
-        throw new IllegalStateException("King move was illegal!");
+    static long computeZobristKey(long[][] boards, long enPassantBoard) {
+        long key = 0;
+        for (int c = 0; c < 2; c++) {
+            for (int t = 0; t < 6; t++) {
+                long pieces = boards[c][t];
+                while (pieces != 0) {
+                    key ^= Zobrist.PIECES[c][t][Long.numberOfTrailingZeros(pieces)];
+                    pieces &= pieces - 1;
+                }
+            }
+            key ^= Zobrist.castleKey(boards[c][6]);
+        }
+        return key ^ Zobrist.enPassantKey(enPassantBoard);
     }
 
     /**
-     * When castling the king, instead of using multiple moves to represent the
-     * change in masking bits, the default values for both king and queen side
-     * masks have been precomputed. Therefore, a simple arraycopy will replace
-     * the nine king masks to the default values.
+     * XORs the features changed by the move into tempZobristKey. Only the
+     * squares touched by the move, the castling rights, the en passant board,
+     * and the side to move can change, so the update stays constant time
+     * regardless of how many pieces remain on the board.
      *
      * @param move
-     *      castling the king.
+     *      packed move that has just been applied to tempBoards.
+     * @param oldWhiteCastleRooks
+     *      white's castle-able rooks mask prior to the move.
+     * @param oldBlackCastleRooks
+     *      black's castle-able rooks mask prior to the move.
+     * @param oldEnPassantBoard
+     *      en passant board prior to the move.
      */
-    private void updateKingMasksCastle(Move move) {
-        if (move.getCastledRook() == Move.CastleSide.NONE)
-            throw new IllegalStateException("Passed a non-castled move to the update castle mask method!");
-
-        int colorIndex = move.getMovedPieceColor().ordinal();
-        if (move.getCastledRook() == Move.CastleSide.QUEEN_SIDE)
-            System.arraycopy(defaultQueenSideCastleMasks[colorIndex], 0, tempBoards[colorIndex], 9, 9);
-        else // move.getCastledRook() == Move.CastleSide.KING_SIDE
-            System.arraycopy(defaultKingSideCastleMasks[colorIndex], 0, tempBoards[colorIndex], 9, 9);
-
-        // Update the change history stack
-        for (int i = 9; i <= 17; i++)
-            appendChange(colorIndex, i);
+    private void updateZobristKey(int move, long oldWhiteCastleRooks, long oldBlackCastleRooks,
+                                  long oldEnPassantBoard) {
+        int colorIndex = PackedMove.colorIndex(move);
+        long[][] pieceKeys = Zobrist.PIECES[colorIndex];
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        long key = tempZobristKey ^ Zobrist.SIDE;
+
+        if (PackedMove.isCastle(move)) {
+            int rank = 56 * colorIndex;
+            key ^= pieceKeys[5][rank + 4];
+            if (to < from) // queen side
+                key ^= pieceKeys[5][rank + 2] ^ pieceKeys[3][rank] ^ pieceKeys[3][rank + 3];
+            else
+                key ^= pieceKeys[5][rank + 6] ^ pieceKeys[3][rank + 7] ^ pieceKeys[3][rank + 5];
+        }
+        else {
+            int moved = PackedMove.moved(move);
+            int promoted = PackedMove.promoted(move);
+            key ^= pieceKeys[moved][from];
+            key ^= pieceKeys[promoted == PackedMove.NO_PIECE ? moved : promoted][to];
+
+            if (PackedMove.isCapture(move)) {
+                int captureSquare = PackedMove.isEnPassant(move) ? PackedMove.enPassantSquare(move) : to;
+                key ^= Zobrist.PIECES[1 - colorIndex][PackedMove.captured(move)][captureSquare];
+            }
+        }
+
+        key ^= Zobrist.castleKey(oldWhiteCastleRooks) ^ Zobrist.castleKey(tempBoards[0][6]);
+        key ^= Zobrist.castleKey(oldBlackCastleRooks) ^ Zobrist.castleKey(tempBoards[1][6]);
+        key ^= Zobrist.enPassantKey(oldEnPassantBoard) ^ Zobrist.enPassantKey(enPassantBoard);
+
+        tempZobristKey = key;
     }
 
+    /**
+     * Writes the current (possibly virtual) position as FEN, see Fen.write().
+     *
+     * @param turnToMove
+     *      color to move.
+     * @param halfmoveClock
+     *      plies since the last capture or pawn move.
+     * @param fullmoveNumber
+     *      number of the current move.
+     * @return position in FEN.
+     */
+    public String toFen(Piece.Color turnToMove, int halfmoveClock, int fullmoveNumber) {
+        return Fen.write(this, turnToMove, halfmoveClock, fullmoveNumber);
+    }
 
     /*  === PRINTING METHODS ===*/
 
@@ -1291,21 +1385,38 @@ public class Bitboard {
     }
 
     /**
-     * Prints all the king masks for the specific color.
+     * Prints the squares threatening the king of the specific color: every
+     * square the opponent attacks ('#'), the pieces pinned to the king ('*'),
+     * and the king itself ('K').
      *
      * @param color
-     *      to print the king masks for.
+     *      to print the king's threats for.
      */
     public void printKingMasks(Piece.Color color) {
-        int colorIndex = color.ordinal();
-        char[][] pieces = buildDefaultPieces();
-        for (int i = 9; i < 17; i++)
-            populatePieces(pieces, tempBoards[colorIndex][i], '#');
+        System.out.println(prettyPrintPieces(buildKingMasks(color.ordinal())));
+    }
 
-        populatePieces(pieces, tempBoards[colorIndex][17],'*');
-        populatePieces(pieces, tempBoards[colorIndex][5],'K');
+    /**
+     * Builds the printable king threat board used by printKingMasks() and
+     * toString().
+     *
+     * @param colorIndex
+     *      0 -> white<br>1 -> black
+     * @return 8x8 2D char array
+     */
+    private char[][] buildKingMasks(int colorIndex) {
+        char[][] pieces = buildDefaultPieces();
+        long occupied = tempColorBoards[0] | tempColorBoards[1];
+        long attacked = 0;
+        for (int square = 0; square < 64; square++) {
+            if (isSquareAttacked(square, 1 - colorIndex, occupied))
+                attacked |= 1L << square;
+        }
 
-        System.out.println(prettyPrintPieces(pieces));
+        populatePieces(pieces, attacked, '#');
+        populatePieces(pieces, pinnedPieces(colorIndex, null), '*');
+        populatePieces(pieces, tempBoards[colorIndex][5], 'K');
+        return pieces;
     }
 
     /**
@@ -1451,7 +1562,7 @@ public class Bitboard {
     /**
      * Simple toString() implementation that invokes the pretty printing methods
      * to return a combined string with the three different boards (complete,
-     * white, and black), as well as the masking bits for the kings of both
+     * white, and black), as well as the squares threatening the kings of both
      * associated colors.
      *
      * @return human-readable string.
@@ -1467,17 +1578,8 @@ public class Bitboard {
         populate(whitePieces, 0);
         populate(blackPieces, 1);
 
-        char[][] whiteMasks = buildDefaultPieces();
-        for (int i = 9; i < 17; i++)
-            populatePieces(whiteMasks, tempBoards[0][i], '#');
-        populatePieces(whiteMasks, tempBoards[0][17],'*');
-        populatePieces(whiteMasks, tempBoards[0][5],'K');
-
-        char[][] blackMasks = buildDefaultPieces();
-        for (int i = 9; i < 17; i++)
-            populatePieces(whiteMasks, tempBoards[0][i], '#');
-        populatePieces(blackMasks, tempBoards[1][17],'*');
-        populatePieces(blackMasks, tempBoards[1][5],'K');
+        char[][] whiteMasks = buildKingMasks(0);
+        char[][] blackMasks = buildKingMasks(1);
 
         String masks = "\n------------ WHITE KING MASKS ----------------\n" + prettyPrintPieces(whiteMasks) +
                        "\n------------ BLACK KING MASKS ----------------\n" + prettyPrintPieces(blackMasks);
@@ -12,6 +12,8 @@ public class BoardController {
     private Bitboard board;
     private Piece.Color turnToMove;
     private MoveGenerator moveGenerator;
+    private int halfmoveClock; // plies since the last capture or pawn move
+    private int fullmoveNumber = 1;
 
     /**
      * Constructor for the BoardController that creates the bitboard, move
@@ -23,6 +25,20 @@ public class BoardController {
         turnToMove = Piece.Color.WHITE;
     }
 
+    /**
+     * Constructor for the BoardController starting from the position of a
+     * FEN string instead of the starting position.
+     *
+     * @param fen
+     *      position in FEN.
+     * @throws IllegalArgumentException
+     *      if the FEN is invalid, or the side not to move is in check.
+     */
+    public BoardController(String fen) throws IllegalArgumentException {
+        this();
+        loadFen(fen);
+    }
+
     /**
      * Getter for Bitboard for some classes that require direct usage to the
      * underlying data structures.
@@ -35,11 +51,45 @@ public class BoardController {
 
     /**
      * Wipes the board, having a similar effect to re-invoking the constructor.
+     * As with loadFen(), the same Bitboard is reset in place, so anything
+     * holding on to it (such as a Minimax) follows the new game.
      */
     public void cleanBoard() {
-        board = new Bitboard();
-        moveGenerator = new MoveGenerator();
-        turnToMove = Piece.Color.WHITE;
+        loadFen(Fen.START_POSITION);
+    }
+
+    /**
+     * Replaces the position with the one of a FEN string, including the side
+     * to move and the move counters. The same Bitboard is kept, so anything
+     * holding on to it (such as a Minimax) follows the new position. If the
+     * FEN is rejected, the current position is left as it was.
+     *
+     * @param fen
+     *      position in FEN.
+     * @throws IllegalArgumentException
+     *      if the FEN is invalid, or the side not to move is in check.
+     */
+    public void loadFen(String fen) throws IllegalArgumentException {
+        Fen position = Fen.parse(fen);
+        SaveState previous = board.saveCurrentState();
+        board.restoreSaveState(position.getPosition());
+        if (board.isKingInCheck(1 - position.getTurnToMove().ordinal())) {
+            board.restoreSaveState(previous);
+            throw new IllegalArgumentException("The side not to move can't be in check: " + fen);
+        }
+
+        turnToMove = position.getTurnToMove();
+        halfmoveClock = position.getHalfmoveClock();
+        fullmoveNumber = position.getFullmoveNumber();
+    }
+
+    /**
+     * Writes the current position as FEN.
+     *
+     * @return position in FEN.
+     */
+    public String toFen() {
+        return board.toFen(turnToMove, halfmoveClock, fullmoveNumber);
     }
 
     /**
@@ -54,6 +104,11 @@ public class BoardController {
      */
     public void move(Move move) throws IllegalArgumentException {
         board.movePiece(move);
+        boolean irreversible = move.getMovedPieceType() == Piece.Type.PAWN
+                || move.getCapturedPieceType() != Piece.Type.NONE;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        if (turnToMove == Piece.Color.BLACK)
+            fullmoveNumber++;
         changeTurn();
     }
 
@@ -95,30 +150,58 @@ public class BoardController {
     }
 
     /**
-     * Applies move for the minimax algorithm. This will handle wiping the
-     * virtual state if an illegal move is made. It will also apply the virtual
-     * move permanently to ensure a lack of confusion.
+     * Applies move for the minimax algorithm through the bitboard's undo
+     * stack, so it can be reversed with unmakeMove() without taking a
+     * SaveState. The move must come from getLegalMoves(), as it isn't checked
+     * for legality.
      *
-     * @param tempMove
-     *      move to apply to the tempBoards (then permanent if successful)
-     * @throws RuntimeException
-     *      when the game has ended since the move captured one of the kings.
+     * @param move
+     *      packed move to apply to the board.
      */
-    protected void applyMinimaxMove(Move tempMove) throws RuntimeException {
-        try {
-            board.virtualMovePiece(tempMove);
-            if (board.kingMissing()) {
-                throw new RuntimeException(); // game is over (one of the kings is no longer there)
-            }
-        } catch (IllegalArgumentException e) {
-            board.wipeVirtualization();
-            throw e;
-        }
-        board.applyVirtualMovePermanently();
+    protected void makeMinimaxMove(int move) {
+        board.makeMove(move);
+        changeTurn();
+    }
 
+    /**
+     * Reverses the last move made by makeMinimaxMove(), handing the turn back
+     * to the side that made it.
+     *
+     * @param move
+     *      the packed move to undo (must be the last one made).
+     */
+    protected void unmakeMove(int move) {
+        board.unmakeMove(move);
         changeTurn();
     }
 
+    /**
+     * Passes the turn to the opponent without moving (a null move), for the
+     * search's null move pruning. Reversed with unmakeNullMove().
+     */
+    protected void makeNullMove() {
+        board.makeNullMove();
+        changeTurn();
+    }
+
+    /**
+     * Reverses the last null move made by makeNullMove().
+     */
+    protected void unmakeNullMove() {
+        board.unmakeNullMove();
+        changeTurn();
+    }
+
+    /**
+     * Determines if the side to move has any piece besides its king and
+     * pawns.
+     *
+     * @return true if it does; false otherwise.
+     */
+    public boolean hasNonPawnMaterial() {
+        return board.hasNonPawnMaterial(turnToMove.ordinal());
+    }
+
     /**
      * Changes the turn manually. Useful for input testing.
      */
@@ -150,6 +233,38 @@ public class BoardController {
         return moveGenerator.generateMoves(board, turnToMove);
     }
 
+    /**
+     * Generates the legal moves of the current configuration into a
+     * preallocated MoveBuffer, which is how the search avoids building a
+     * MoveList at every node.
+     *
+     * @param buffer
+     *      MoveBuffer that receives the moves.
+     */
+    protected void generateMoves(MoveBuffer buffer) {
+        buffer.generate(moveGenerator, board, turnToMove);
+    }
+
+    /**
+     * Generates only the legal captures and promotions of the current
+     * configuration into a MoveBuffer, used by the quiescence search.
+     *
+     * @param buffer
+     *      MoveBuffer that receives the moves.
+     */
+    protected void generateCaptures(MoveBuffer buffer) {
+        buffer.generateCaptures(moveGenerator, board, turnToMove);
+    }
+
+    /**
+     * Determines if the king of the side to move is currently in check.
+     *
+     * @return true if in check; false otherwise.
+     */
+    public boolean isInCheck() {
+        return board.isKingInCheck(turnToMove.ordinal());
+    }
+
     /**
      * Getter for a piece at any given position.
      *
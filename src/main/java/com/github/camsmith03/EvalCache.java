@@ -0,0 +1,78 @@
+package com.github.camsmith03;
+
+/**
+ * <p>
+ * Fixed size, direct-mapped cache of static evaluations, indexed by the
+ * Zobrist key of the position. The search reaches many leaves more than once
+ * (through transpositions, and again in every iteration of iterative
+ * deepening), and a lookup is cheaper than evaluating the position again.
+ * Unlike the transposition table, an entry never goes stale, since the
+ * evaluation of a position never changes.
+ * </p><p>
+ * Each entry takes two consecutive slots of a single long array: the key
+ * XORed with the data word, then the data word (the score, as the key
+ * includes the side to move). The cache is shared by every search thread
+ * without any locking, so, as in the TranspositionTable, an entry whose two
+ * halves were written by different threads (a torn write) fails to match on
+ * the next probe and is treated as a miss.
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class EvalCache {
+    public static final int MISS = Integer.MIN_VALUE; // never a real evaluation
+    private static final int ENTRY_BYTES = 16;
+    private final long[] entries;
+    private final int indexMask;
+
+    /**
+     * Allocates a cache using (at most) the given number of megabytes. The
+     * entry count is rounded down to a power of two so an index can be found
+     * with a single mask.
+     *
+     * @param sizeMb
+     *      memory budget for the cache in megabytes (at least 1).
+     */
+    public EvalCache(int sizeMb) {
+        if (sizeMb < 1)
+            throw new IllegalArgumentException("Evaluation cache size must be at least 1 MB");
+
+        long count = Long.highestOneBit(((long) sizeMb << 20) / ENTRY_BYTES);
+        count = Math.min(count, 1 << 29);
+        entries = new long[(int) count * 2];
+        indexMask = (int) count - 1;
+    }
+
+    /**
+     * Looks up the evaluation stored for the given key.
+     *
+     * @param key
+     *      Zobrist key of the position.
+     * @return evaluation from the point of view of the side to move, or MISS
+     *      if the position isn't stored.
+     */
+    public int probe(long key) {
+        int index = ((int) key & indexMask) << 1;
+        long data = entries[index + 1];
+        if ((entries[index] ^ data) == key)
+            return (int) data;
+
+        return MISS;
+    }
+
+    /**
+     * Stores the evaluation of a position, replacing whatever held its slot.
+     *
+     * @param key
+     *      Zobrist key of the position.
+     * @param score
+     *      evaluation from the point of view of the side to move.
+     */
+    public void store(long key, int score) {
+        int index = ((int) key & indexMask) << 1;
+        long data = score & 0xFFFFFFFFL;
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+}
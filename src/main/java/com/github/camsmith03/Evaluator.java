@@ -4,6 +4,22 @@ package com.github.camsmith03;
  * Evaluator has the heuristics used to take a boardController in its static state, apply
  * an integer to represent its overall value, then return it to be utilized by
  * minimax. Changes to the heuristic have massive effects on the minimax output.
+ * <br><br>
+ * Piece placement is tapered: every piece has a middlegame and an endgame
+ * bonus, blended by the game phase (how much non-pawn material is left on
+ * the board), so the evaluation drifts from one to the other as pieces are
+ * traded instead of switching over at a fixed point in the game.
+ * <br><br>
+ * Pawn structure (doubled, isolated and passed pawns) is found set-wise from
+ * the pawn boards, and cached in a PawnTable keyed by the pawn-only Zobrist
+ * key, since the pawns rarely change between the positions of a search.
+ * <br><br>
+ * Piece activity is scored from the attack sets of the knights, bishops,
+ * rooks and queens (looked up in the AttackTables, so no moves are
+ * generated): mobility counts the squares each piece reaches, and king safety
+ * counts the attacks on the squares around each king.
+ * <br><br>
+ * Scores are in centipawns (a pawn is worth 100).
  * TODO: this is the weakest link for all the methods created. fixing the issues
  *       and improving the heuristic should solve most (if not all) of the
  *       issues for minimax.
@@ -12,12 +28,49 @@ package com.github.camsmith03;
  * @version 09.04.2024
  */
 public class Evaluator {
-    private boolean awardCentral = true; // flip to false after 10+ moves are made (15+ post move boardController gets evaluated)
-    private int evalMultiplier = 1;
     private final Bitboard board;
-    private static final int[] PIECE_VAL = new int[]{1, 3, 3, 5, 9}; // official piece values.
+    private final PawnTable pawnTable = new PawnTable(PAWN_TABLE_ENTRIES);
+    private final SearchStats stats; // pawn table probes and hits are counted here
+    private static final int PAWN_TABLE_ENTRIES = 1 << 14;
+    private static final int[] PIECE_VAL = new int[]{100, 300, 300, 500, 900}; // official piece values.
+    private static final int BISHOP_PAIR = 50;
+    private static final int CENTER_BONUS = 30; // placement bonus in the center four squares
+    private static final int RING_BONUS = 15; // placement bonus in the ring around them
+    private static final int PAWN_ADVANCE_BONUS = 20; // endgame bonus per rank a pawn stands past the fifth
+    static final int DOUBLED_PAWN = pack(-10, -20); // for each pawn with another pawn of its color behind it
+    static final int ISOLATED_PAWN = pack(-10, -15); // for each pawn without a pawn of its color beside it
+    static final int[] PASSED_PAWN = { // by rank, from the pawn's side of the board
+            0, pack(5, 10), pack(5, 15), pack(10, 25), pack(20, 45), pack(35, 70), pack(60, 110), 0};
+    // bonus for each square a knight, bishop, rook or queen reaches (outside its own pieces and the enemy pawns' reach)
+    static final int[] MOBILITY = {0, pack(4, 4), pack(5, 5), pack(2, 4), pack(1, 2)};
+    private static final int[] KING_ATTACK_WEIGHT = {0, 2, 2, 3, 5}; // units per attacked king zone square, by type
+    private static final int KING_DANGER_CAP = 500; // most a king attack can cost (in the middlegame)
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = 0x8080808080808080L;
     private static final long centralSquares = 0x0000001818000000L; // center four squares
     private static final long outerRing = 0x00003C24243C0000L; // ring surrounding center 4 squares
+    public static final int MAX_PHASE = 24; // phase with every starting piece on the board
+    private static final int[] PHASE_WEIGHT = new int[]{0, 1, 1, 2, 4, 0}; // phase each piece type adds
+    private static final int[][][] PIECE_SQUARE = new int[2][6][64]; // [color][type][square] packed value
+
+    static {
+        for (int type = 0; type < 6; type++) {
+            for (int square = 0; square < 64; square++) {
+                long mask = 1L << square;
+                int central = (centralSquares & mask) != 0 ? CENTER_BONUS : (outerRing & mask) != 0 ? RING_BONUS : 0;
+                int rank = square >>> 3;
+
+                // Middlegame: pieces belong in the center, but the king is safer away from it.
+                int middlegame = type == 5 ? 0 : central;
+                // Endgame: the king walks to the center, and pawns gain value as they near promotion.
+                int endgame = type == 5 ? central : type == 0 ? Math.max(0, rank - 4) * PAWN_ADVANCE_BONUS : 0;
+
+                int value = pack(pieceValue(type) + middlegame, pieceValue(type) + endgame);
+                PIECE_SQUARE[0][type][square] = value;
+                PIECE_SQUARE[1][type][square ^ 56] = -value; // black's squares are mirrored, and count against white
+            }
+        }
+    }
 
 
     /**
@@ -25,147 +78,318 @@ public class Evaluator {
      *
      * @param board
      *      bitboard to be modified at runtime by Minimax.
-     * @param maximizer
-     *      color for the lifetime of the program.
-     * @param treeDepth
-     *      TODO: unused
      */
-    public Evaluator(Bitboard board, Piece.Color maximizer, int treeDepth) {
-        if (maximizer == Piece.Color.BLACK) {
-            evalMultiplier = -1; // evaluate(Move) defaults to assume black is the minimizer.
-                                 // multiplying by negative 1 will reverse the output.
-        }
-
+    public Evaluator(Bitboard board) {
+        this(board, new SearchStats());
+    }
 
+    /**
+     * Constructor for Evaluator that counts its pawn table probes and hits
+     * in the statistics of a search.
+     *
+     * @param board
+     *      bitboard to be modified at runtime by Minimax.
+     * @param stats
+     *      statistics of the search using the evaluator.
+     */
+    public Evaluator(Bitboard board, SearchStats stats) {
         this.board = board;
+        this.stats = stats;
     }
 
-    // assumes that a try/catch was already made on the move to ensure its legality, and that the move has been applied
-    // to the virtual boards.
-    // Will also base calculations such that white -> maximizer, black -> minimizer. A multiplier initialized in the
-    // constructor will invert the output assuming the player is actually black.
-
     /**
-     * Assuming a try/catch was made to ensure the move is considered legal, and
-     * that the move was applied to the virtual boards, this will return an
-     * integer value corresponding the static evaluation of the boardController. The
-     * helper methods base their calculations on white being the maximizer,
-     * which the evalMultiplier uses to invert their outputs if that isn't the
-     * case.
+     * Returns an integer value corresponding the static evaluation of the
+     * boardController, from the point of view of the given side (as the
+     * negamax search expects). The helper methods base their calculations on
+     * white being the maximizer, so the result is negated for black.
+     * <br><br>
+     * Material, piece placement and the game phase are summed up by the
+     * Bitboard as moves are made (see pieceSquareValue()), so only the bishop
+     * pairs, the pawn structure (usually from the pawn table) and the piece
+     * activity are looked at here, along with blending the middlegame and
+     * endgame sums.
      *
-     * @param move
-     *      already applied the current boardController. TODO: no longer used
+     * @param sideToMove
+     *      color the evaluation is for.
      * @return integer representing the static evaluation.
      */
-    public int evaluate(Move move) {
+    public int evaluate(Piece.Color sideToMove) {
         long[][] boards = board.getVirtualBoards();
-        long[] colorBoards = board.getVirtualColorBoards();
 
-        int evaluation = materialEval(boards) + developmentEval(boards, colorBoards);
+        int phase = Math.min(board.getPhase(), MAX_PHASE); // promotions can add more than was traded
+        int score = board.getPieceSquareScore() + pawnStructureEval(boards)
+                + activityEval(boards);
+        int evaluation = bishopPairEval(boards)
+                + (middlegame(score) * phase + endgame(score) * (MAX_PHASE - phase)) / MAX_PHASE;
 
-        return evaluation * evalMultiplier; // TODO: evalMultiplier can't tell treeDepth for differentiation!!
+        return sideToMove == Piece.Color.WHITE ? evaluation : -evaluation;
     }
 
 
 
     /**
-     * Evaluates who has the material advantage for the current boardController. Returns
-     * an integer assuming white is the maximizer.
+     * Material value of a piece type, in the same units as evaluate(). The
+     * king (and NONE) are worth nothing, as they are never traded.
+     *
+     * @param typeIndex
+     *      Piece.Type ordinal.
+     * @return value of the piece.
+     */
+    public static int pieceValue(int typeIndex) {
+        return typeIndex < PIECE_VAL.length ? PIECE_VAL[typeIndex] : 0;
+    }
+
+    /**
+     * Value of a piece standing on a square (its material plus a placement
+     * bonus), summed up by the Bitboard as pieces move. The middlegame and
+     * endgame values are packed into one int (see pack()), so both sums are
+     * kept with a single add. The placement bonuses are:
+     * <ul>
+     * <li>middlegame: any piece but the king earns 30 in the center four
+     * squares and 15 in the ring around them.</li>
+     * <li>endgame: the king earns the central bonus instead, and pawns earn
+     * 20 on the sixth rank and 40 on the seventh.</li>
+     * </ul>
+     *
+     * @param colorIndex
+     *      color index of the piece (black's squares are mirrored).
+     * @param typeIndex
+     *      Piece.Type ordinal (no NONE).
+     * @param square
+     *      square index (0 = a1, 63 = h8).
+     * @return packed value of the piece, from white's point of view
+     *      (negative for black).
+     */
+    public static int pieceSquareValue(int colorIndex, int typeIndex, int square) {
+        return PIECE_SQUARE[colorIndex][typeIndex][square];
+    }
+
+    /**
+     * Bishop pair bonus (for either side holding both bishops).
+     * Returns an integer assuming white is the maximizer.
+     *
+     * @param boards
+     *      representing the current boardController configuration.
+     * @return evaluation of the bishop pairs.
+     */
+    private int bishopPairEval(long[][] boards) {
+        int evaluation = 0;
+        if (Long.bitCount(boards[0][2]) > 1)
+            evaluation += BISHOP_PAIR;
+        if (Long.bitCount(boards[1][2]) > 1)
+            evaluation -= BISHOP_PAIR;
+
+        return evaluation;
+    }
+
+    /**
+     * Mobility and king attacks of the knights, bishops, rooks and queens of
+     * both sides, in a single pass sharing the occupancy, the pawn attacks
+     * and the king zones. Each piece's attack set comes from the AttackTables
+     * (sliders through the pieces of both sides), and:
+     * <ul>
+     * <li>mobility: the piece earns MOBILITY for each square it reaches that
+     * doesn't hold a piece of its own and isn't guarded by an enemy pawn.</li>
+     * <li>king safety: each attacked square next to (or holding) the enemy
+     * king adds KING_ATTACK_WEIGHT units. Once two pieces join the attack,
+     * the units cost the enemy king quadratically (capped), in the middlegame
+     * only.</li>
+     * </ul>
+     * Returns a packed score assuming white is the maximizer.
      *
      * @param boards
      *      representing the current boardController configuration.
-     * @return evaluation under the material calculations.
+     * @return packed activity score.
+     */
+    static int activityEval(long[][] boards) {
+        long[] white = boards[0];
+        long[] black = boards[1];
+        long whitePieces = white[0] | white[1] | white[2] | white[3] | white[4] | white[5];
+        long blackPieces = black[0] | black[1] | black[2] | black[3] | black[4] | black[5];
+        long occupied = whitePieces | blackPieces;
+        long whitePawnAttacks = ((white[0] & ~FILE_A) << 7) | ((white[0] & ~FILE_H) << 9);
+        long blackPawnAttacks = ((black[0] & ~FILE_A) >>> 9) | ((black[0] & ~FILE_H) >>> 7);
+
+        return sideActivity(white, occupied, ~whitePieces & ~blackPawnAttacks, kingZone(black[5]))
+                - sideActivity(black, occupied, ~blackPieces & ~whitePawnAttacks, kingZone(white[5]));
+    }
+
+    /**
+     * Activity of one side's pieces (see activityEval()).
+     *
+     * @param pieces
+     *      boards of the side scored, by type.
+     * @param occupied
+     *      every occupied square on the board.
+     * @param mobilityArea
+     *      squares counted for mobility.
+     * @param kingZone
+     *      enemy king and the squares around it.
+     * @return packed score for the side (positive is good for it).
      */
-    private int materialEval(long[][] boards) {
-        int blackMaterial = 0;
-        int whiteMaterial = 0;
-
-        // Baseline values
-        for (int i = 0; i < 5; i++) {
-            long whitePieces = boards[0][i];
-            while (whitePieces != 0) {
-                whiteMaterial += PIECE_VAL[i];
-                whitePieces = whitePieces ^ (whitePieces & -whitePieces);
+    private static int sideActivity(long[] pieces, long occupied, long mobilityArea, long kingZone) {
+        int knightSquares = 0, bishopSquares = 0, rookSquares = 0, queenSquares = 0;
+        int attackers = 0;
+        int attackUnits = 0;
+        for (long knights = pieces[1]; knights != 0; knights &= knights - 1) {
+            long attacks = AttackTables.knightAttacks(Long.numberOfTrailingZeros(knights));
+            knightSquares += Long.bitCount(attacks & mobilityArea);
+            if ((attacks & kingZone) != 0) {
+                attackers++;
+                attackUnits += KING_ATTACK_WEIGHT[1] * Long.bitCount(attacks & kingZone);
             }
-            long blackPieces = boards[1][i];
-            while (blackPieces != 0) {
-                blackMaterial += PIECE_VAL[i];
-                blackPieces = blackPieces ^ (blackPieces & -blackPieces);
+        }
+        for (long bishops = pieces[2]; bishops != 0; bishops &= bishops - 1) {
+            long attacks = AttackTables.bishopAttacks(Long.numberOfTrailingZeros(bishops), occupied);
+            bishopSquares += Long.bitCount(attacks & mobilityArea);
+            if ((attacks & kingZone) != 0) {
+                attackers++;
+                attackUnits += KING_ATTACK_WEIGHT[2] * Long.bitCount(attacks & kingZone);
             }
         }
-
-        // Bishop pairs (bonus points)
-        long whiteBishops = boards[0][2];
-        if ((whiteBishops ^ (whiteBishops & -whiteBishops)) != 0) {
-            whiteMaterial += 2;
+        for (long rooks = pieces[3]; rooks != 0; rooks &= rooks - 1) {
+            long attacks = AttackTables.rookAttacks(Long.numberOfTrailingZeros(rooks), occupied);
+            rookSquares += Long.bitCount(attacks & mobilityArea);
+            if ((attacks & kingZone) != 0) {
+                attackers++;
+                attackUnits += KING_ATTACK_WEIGHT[3] * Long.bitCount(attacks & kingZone);
+            }
         }
-        long blackBishops = boards[1][2];
-        if ((blackBishops ^ (blackBishops & -blackBishops)) != 0) {
-            blackMaterial += 2;
+        for (long queens = pieces[4]; queens != 0; queens &= queens - 1) {
+            long attacks = AttackTables.queenAttacks(Long.numberOfTrailingZeros(queens), occupied);
+            queenSquares += Long.bitCount(attacks & mobilityArea);
+            if ((attacks & kingZone) != 0) {
+                attackers++;
+                attackUnits += KING_ATTACK_WEIGHT[4] * Long.bitCount(attacks & kingZone);
+            }
         }
 
-        return whiteMaterial - blackMaterial; // positive result means white advantage, negative result means black
-                                              // advantage.
+        int score = MOBILITY[1] * knightSquares + MOBILITY[2] * bishopSquares + MOBILITY[3] * rookSquares
+                + MOBILITY[4] * queenSquares;
+        if (attackers > 1)
+            score += pack(Math.min(attackUnits * attackUnits, KING_DANGER_CAP), 0);
+
+        return score;
+    }
+
+    private static long kingZone(long king) {
+        return king == 0 ? 0 : king | AttackTables.kingAttacks(Long.numberOfTrailingZeros(king));
     }
 
     /**
-     * Evaluates who has better developed pieces for the current boardController. The
-     * flag "awardCentral" is controllable from the outside to stop providing
-     * incentives towards the central squares after a certain number of moves
-     * have passed.
+     * Pawn structure of the position, from the pawn table when the same pawns
+     * were seen before. Returns a packed score assuming white is the
+     * maximizer.
      *
      * @param boards
      *      representing the current boardController configuration.
-     * @param colorBoards
-     *      for the piece designated values.
-     * @return evaluation under the development calculations.
+     * @return packed pawn structure score.
      */
-    private int developmentEval(long[][] boards, long[] colorBoards) {
-        // Pawn structure, Piece placement, Open Files and Diagonals, Piece mobility
-        int whiteDevelopment = 0;
-        int blackDevelopment = 0;
-
-        if (awardCentral) {
-            long whitePiecesInner = colorBoards[0] & centralSquares;
-            long blackPiecesInner = colorBoards[1] & centralSquares;
-
-            while (whitePiecesInner != 0) {
-                whiteDevelopment += 2;
-                whitePiecesInner = whitePiecesInner ^ (whitePiecesInner & -whitePiecesInner);
-            }
-            while (blackPiecesInner != 0) {
-                blackDevelopment += 2;
-                blackPiecesInner = blackPiecesInner ^ (blackPiecesInner & -blackPiecesInner);
-            }
+    private int pawnStructureEval(long[][] boards) {
+        long key = board.getPawnKey();
+        stats.pawnProbes++;
+        int score = pawnTable.probe(key);
+        if (score != PawnTable.MISS) {
+            stats.pawnHits++;
+            return score;
+        }
 
-            long whitePiecesOuter = colorBoards[0] & outerRing;
-            long blackPiecesOuter = colorBoards[1] & outerRing;
+        // black's pawns are flipped onto white's side of the board, so both are scored the same way
+        score = pawnScore(boards[0][0], boards[1][0])
+                - pawnScore(Long.reverseBytes(boards[1][0]), Long.reverseBytes(boards[0][0]));
+        pawnTable.store(key, score);
+        return score;
+    }
 
-            while (whitePiecesOuter != 0) {
-                whiteDevelopment += 1;
-                whitePiecesOuter = whitePiecesOuter ^ (whitePiecesOuter & -whitePiecesOuter);
-            }
+    /**
+     * Scores the pawns of one side, seen from white's side of the board (so
+     * they move up the board), using whole-board shifts and fills instead of
+     * looking at each pawn's surroundings.
+     *
+     * @param pawns
+     *      pawns being scored.
+     * @param enemyPawns
+     *      pawns of the other side.
+     * @return packed score of the pawns.
+     */
+    static int pawnScore(long pawns, long enemyPawns) {
+        long files = northFill(pawns) | southFill(pawns);
+        long neighborFiles = ((files & ~FILE_H) << 1) | ((files & ~FILE_A) >>> 1);
+        int score = DOUBLED_PAWN * Long.bitCount(pawns & northFill(pawns << 8))
+                + ISOLATED_PAWN * Long.bitCount(pawns & ~neighborFiles);
 
-            while (blackPiecesOuter != 0) {
-                blackDevelopment += 1;
-                blackPiecesOuter = blackPiecesOuter ^ (blackPiecesOuter & -blackPiecesOuter);
-            }
+        // a pawn is passed when no enemy pawn stands ahead of it on its own or a neighboring file, and it isn't
+        // behind another pawn of its own (the front one counts instead)
+        long enemyFront = southFill(enemyPawns >>> 8);
+        long stoppable = enemyFront | ((enemyFront & ~FILE_H) << 1) | ((enemyFront & ~FILE_A) >>> 1);
+        long passed = pawns & ~stoppable & ~southFill(pawns >>> 8);
+        while (passed != 0) {
+            score += PASSED_PAWN[Long.numberOfTrailingZeros(passed) >>> 3];
+            passed &= passed - 1;
         }
-        return whiteDevelopment - blackDevelopment;
+        return score;
+    }
+
+    private static long northFill(long board) {
+        board |= board << 8;
+        board |= board << 16;
+        return board | board << 32;
+    }
+
+    private static long southFill(long board) {
+        board |= board >>> 8;
+        board |= board >>> 16;
+        return board | board >>> 32;
+    }
+
+    /**
+     * Amount a piece type adds to the game phase, which runs from MAX_PHASE
+     * with every starting piece on the board down to 0 with only kings and
+     * pawns left.
+     *
+     * @param typeIndex
+     *      Piece.Type ordinal (no NONE).
+     * @return phase weight of the piece.
+     */
+    public static int phaseWeight(int typeIndex) {
+        return PHASE_WEIGHT[typeIndex];
+    }
+
+    /**
+     * Packs a middlegame and an endgame score into one int, with the endgame
+     * score in the upper 16 bits. Packed scores can be added and subtracted
+     * as plain ints (the middlegame half borrows from the endgame half when
+     * negative, which middlegame() and endgame() account for).
+     *
+     * @param middlegame
+     *      middlegame score.
+     * @param endgame
+     *      endgame score.
+     * @return packed score.
+     */
+    public static int pack(int middlegame, int endgame) {
+        return (endgame << 16) + middlegame;
     }
 
     /**
-     * After a certain number of moves have been made, the number of moves that
-     * will be applied to the boardController will mean the mid-game is approaching its
-     * conclusion and end game prep should be made. Awarding central square
-     * bonuses is trivial since the stability of the central squares is not as
-     * big a concern.
-     * <br>
-     * This is left to be utilized by Minimax to allow multiple configurations
-     * to be attempted and see which one leads to a preferable outcome.
+     * Unpacks the middlegame half of a packed score.
+     *
+     * @param packed
+     *      packed score (see pack()).
+     * @return middlegame score.
      */
-    public void stopCentralBonus() {
-        awardCentral = false;
+    public static int middlegame(int packed) {
+        return (short) packed;
     }
 
+    /**
+     * Unpacks the endgame half of a packed score.
+     *
+     * @param packed
+     *      packed score (see pack()).
+     * @return endgame score.
+     */
+    public static int endgame(int packed) {
+        return (packed + 0x8000) >> 16;
+    }
 }
@@ -0,0 +1,278 @@
+package com.github.camsmith03;
+
+/**
+ * <p>
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN), such as the
+ * starting position:
+ * <pre>rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1</pre>
+ * The six fields are the piece placement (from rank 8 down to rank 1), the
+ * side to move, the castling rights, the en passant target square, the
+ * halfmove clock and the fullmove number. The two move counters may be left
+ * off, in which case they default to 0 and 1.
+ * </p><p>
+ * Parsing builds every mask a Bitboard holds directly from the text, in a
+ * single pass and without making any moves, so a position can be loaded as
+ * fast as it can be read. Castling rights are only kept for a rook still on
+ * its corner square with the king on its own starting square (standard chess,
+ * not Chess960), and the en passant board is built the way Bitboard builds it
+ * after a double push: the pushed pawn, plus the pawns able to take it. The
+ * Zobrist key therefore matches that of the same position reached by moves.
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public final class Fen {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String PIECES = "PNBRQKpnbrqk"; // indexed by color * 6 + type
+    private static final long[][] EN_PASSANT_MASKS = { // boards[color][7] and [8], fixed by the board geometry
+            {0x00FF000000000000L, 0x000000FF00000000L},
+            {0x000000000000FF00L, 0x00000000FF000000L}};
+    private static final long[] KING_START = {1L << 4, 1L << 60};
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = 0x8080808080808080L;
+
+    private final SaveState position;
+    private final Piece.Color turnToMove;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+
+    private Fen(SaveState position, Piece.Color turnToMove, int halfmoveClock, int fullmoveNumber) {
+        this.position = position;
+        this.turnToMove = turnToMove;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Parses a FEN string.
+     *
+     * @param fen
+     *      position in FEN.
+     * @return the parsed position.
+     * @throws IllegalArgumentException
+     *      if the text isn't valid FEN, or the position doesn't have exactly
+     *      one king per side or has pawns on the first or last rank.
+     */
+    public static Fen parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length != 4 && fields.length != 6)
+            throw new IllegalArgumentException("FEN needs 4 or 6 fields: " + fen);
+
+        long[][] boards = new long[2][Bitboard.BOARD_COUNT];
+        long[] colorBoards = new long[2];
+        parsePlacement(fields[0], boards, colorBoards);
+
+        Piece.Color turnToMove = switch (fields[1]) {
+            case "w" -> Piece.Color.WHITE;
+            case "b" -> Piece.Color.BLACK;
+            default -> throw new IllegalArgumentException("Side to move must be w or b: " + fields[1]);
+        };
+
+        for (int color = 0; color < 2; color++) {
+            boards[color][7] = EN_PASSANT_MASKS[color][0];
+            boards[color][8] = EN_PASSANT_MASKS[color][1];
+        }
+        parseCastling(fields[2], boards);
+        long enPassantBoard = parseEnPassant(fields[3], boards, turnToMove);
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if (fields.length == 6) {
+            try {
+                halfmoveClock = Integer.parseInt(fields[4]);
+                fullmoveNumber = Integer.parseInt(fields[5]);
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Move counters must be numbers: " + fields[4] + " " + fields[5]);
+            }
+            if (halfmoveClock < 0 || fullmoveNumber < 1)
+                throw new IllegalArgumentException("Move counters out of range: " + fields[4] + " " + fields[5]);
+        }
+
+        long key = Bitboard.computeZobristKey(boards, enPassantBoard);
+        if (turnToMove == Piece.Color.BLACK)
+            key ^= Zobrist.SIDE;
+
+        return new Fen(new SaveState(boards, colorBoards, enPassantBoard, key), turnToMove, halfmoveClock,
+                fullmoveNumber);
+    }
+
+    /**
+     * Writes the current (possibly virtual) position of a bitboard as FEN.
+     *
+     * @param bitboard
+     *      board to write.
+     * @param turnToMove
+     *      color to move, which the bitboard doesn't track.
+     * @param halfmoveClock
+     *      plies since the last capture or pawn move.
+     * @param fullmoveNumber
+     *      number of the current move, starting at 1.
+     * @return position in FEN.
+     */
+    public static String write(Bitboard bitboard, Piece.Color turnToMove, int halfmoveClock, int fullmoveNumber) {
+        long[][] boards = bitboard.getVirtualBoards();
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                char piece = pieceAt(boards, rank * 8 + file);
+                if (piece == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0)
+                    fen.append(empty);
+                fen.append(piece);
+                empty = 0;
+            }
+            if (empty > 0)
+                fen.append(empty);
+            if (rank > 0)
+                fen.append('/');
+        }
+
+        fen.append(turnToMove == Piece.Color.WHITE ? " w " : " b ");
+
+        int length = fen.length();
+        if ((boards[0][6] & 0x80L) != 0) fen.append('K');
+        if ((boards[0][6] & 0x01L) != 0) fen.append('Q');
+        if ((boards[1][6] & 0x80L << 56) != 0) fen.append('k');
+        if ((boards[1][6] & 0x01L << 56) != 0) fen.append('q');
+        if (fen.length() == length)
+            fen.append('-');
+
+        // the pushed pawn belongs to the side that just moved, with the target square right behind it
+        long pushedPawn = bitboard.enPassantBoard & boards[1 - turnToMove.ordinal()][0];
+        if (pushedPawn == 0) {
+            fen.append(" -");
+        }
+        else {
+            int square = Long.numberOfTrailingZeros(pushedPawn) + (turnToMove == Piece.Color.WHITE ? 8 : -8);
+            fen.append(' ').append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+        }
+
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    /**
+     * Getter for the parsed position, ready for Bitboard.restoreSaveState().
+     *
+     * @return SaveState
+     */
+    public SaveState getPosition() {
+        return position;
+    }
+
+    /**
+     * Getter for the side to move.
+     *
+     * @return turnToMove
+     */
+    public Piece.Color getTurnToMove() {
+        return turnToMove;
+    }
+
+    /**
+     * Getter for the plies since the last capture or pawn move.
+     *
+     * @return halfmoveClock
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Getter for the number of the current move.
+     *
+     * @return fullmoveNumber
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    private static void parsePlacement(String placement, long[][] boards, long[] colorBoards) {
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < placement.length(); i++) {
+            char c = placement.charAt(i);
+            if (c == '/') {
+                if (file != 8 || rank == 0)
+                    throw new IllegalArgumentException("Each rank must have 8 squares: " + placement);
+                rank--;
+                file = 0;
+            }
+            else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            }
+            else {
+                int index = PIECES.indexOf(c);
+                if (index < 0 || file > 7)
+                    throw new IllegalArgumentException("Invalid piece placement: " + placement);
+
+                long mask = 1L << (rank * 8 + file++);
+                boards[index / 6][index % 6] |= mask;
+                colorBoards[index / 6] |= mask;
+            }
+            if (file > 8)
+                throw new IllegalArgumentException("Each rank must have 8 squares: " + placement);
+        }
+        if (rank != 0 || file != 8)
+            throw new IllegalArgumentException("Placement must cover all 8 ranks: " + placement);
+
+        if (Long.bitCount(boards[0][5]) != 1 || Long.bitCount(boards[1][5]) != 1)
+            throw new IllegalArgumentException("Each side needs exactly one king: " + placement);
+        if (((boards[0][0] | boards[1][0]) & 0xFF000000000000FFL) != 0)
+            throw new IllegalArgumentException("Pawns can't stand on the first or last rank: " + placement);
+    }
+
+    private static void parseCastling(String castling, long[][] boards) {
+        if (castling.equals("-"))
+            return;
+
+        for (int i = 0; i < castling.length(); i++) {
+            char c = castling.charAt(i);
+            int color = Character.isUpperCase(c) ? 0 : 1;
+            long rook = switch (Character.toLowerCase(c)) {
+                case 'k' -> 0x80L << (56 * color);
+                case 'q' -> 0x01L << (56 * color);
+                default -> throw new IllegalArgumentException("Invalid castling rights: " + castling);
+            };
+
+            // rights that no longer match the board can't be used, so they are dropped rather than rejected
+            if ((boards[color][3] & rook) != 0 && boards[color][5] == KING_START[color])
+                boards[color][6] |= rook;
+        }
+    }
+
+    private static long parseEnPassant(String target, long[][] boards, Piece.Color turnToMove) {
+        if (target.equals("-"))
+            return 0;
+
+        int targetRank = turnToMove == Piece.Color.WHITE ? 5 : 2;
+        if (target.length() != 2 || target.charAt(0) < 'a' || target.charAt(0) > 'h'
+                || target.charAt(1) - '1' != targetRank)
+            throw new IllegalArgumentException("Invalid en passant square: " + target);
+
+        int square = targetRank * 8 + target.charAt(0) - 'a';
+        int mover = turnToMove.ordinal();
+        long pawn = 1L << (turnToMove == Piece.Color.WHITE ? square - 8 : square + 8);
+        if ((boards[1 - mover][0] & pawn) == 0)
+            throw new IllegalArgumentException("No pawn can be taken en passant on " + target);
+
+        long takers = (((pawn << 1) & ~FILE_A) | ((pawn >>> 1) & ~FILE_H)) & boards[mover][0];
+        return pawn | takers;
+    }
+
+    private static char pieceAt(long[][] boards, int square) {
+        long mask = 1L << square;
+        for (int color = 0; color < 2; color++) {
+            for (int type = 0; type < 6; type++) {
+                if ((boards[color][type] & mask) != 0)
+                    return PIECES.charAt(color * 6 + type);
+            }
+        }
+        return 0;
+    }
+}
@@ -17,7 +17,7 @@ public class GameEngine {
     public GameEngine(Piece.Color playerColor) {
         boardController = new BoardController();
         lexer = new InputLexer(boardController);
-        minimax = new Minimax(boardController);
+        minimax = new Minimax(boardController, SearchConfig.fromSystemProperties());
         otu = new OutputTranslationUnit();
         this.playerColor = playerColor;
     }
@@ -1,47 +1,80 @@
 package com.github.camsmith03;
-import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * <p>
  *     Main recursive algorithm that builds a "psuedo-tree" from function calls.
- *     Hard set to a max ply of 7 as some inefficiencies in the static
- *     evaluation still need to be worked out to support deeper searches.
+ *     Utilizes an Alpha-Beta pruning technique to drastically reduce search
+ *     complexity, supporting a larger max ply or deeper search. The search
+ *     itself is carried out by SearchWorkers, with this class deciding how
+ *     deep and how long they search.
  * </p><p>
- *     Designed with an iterative deepening system with a starting ply of 1,
- *     (incrementing up one on each call to minimax(). Utilizes an Alpha-Beta
- *     pruning technique to drastically reduce search complexity, supporting a
- *     larger max ply or deeper search.
+ *     Each search deepens iteratively within the call: the position is
+ *     searched to a ply of 1, then 2, and so on until the SearchLimits run
+ *     out. Every iteration searches the previous iteration's best move first
+ *     (and finds the best moves deeper in the tree through the transposition
+ *     table), so the shallow iterations mostly pay for themselves through
+ *     better move ordering. When the time runs out partway through an
+ *     iteration, that iteration is abandoned and the best move of the last
+ *     completed one is returned.
+ * </p><p>
+ *     With more than one thread configured, helper workers search the same
+ *     position on their own threads once the first iteration is done (Lazy
+ *     SMP). They share the transposition table with the main worker, which
+ *     alone decides the move, and are stopped as soon as it is done.
  * </p>
  *
  * @author Cameron Smith
- * @version 09.04.2024
+ * @version 10.18.2026
  */
 public class Minimax {
-    private final Evaluator evaluator;
-    private static final int STARTING_DEPTH = 1;
-    private static final int MAX_PLY = 7;
-    private static final int LOADING_BAR_PLY = 7;
-    private static final int MID_GAME_DEPTH = 6;
-    private int ply = STARTING_DEPTH;
+    private final TranspositionTable transpositionTable;
+    private final EvalCache evalCache; // null if disabled
+    private final SearchStats stats = new SearchStats(); // totals across every worker
+    private final SearchConfig config;
+    private final OutputTranslationUnit otu = new OutputTranslationUnit();
+    private final AtomicBoolean stopSignal = new AtomicBoolean();
+    private final SearchWorker mainWorker;
+    private final SearchWorker[] helpers;
 
     /**
      * Constructor for Minimax that takes in a BoardController (at the initial state).
-     * Maximizer is set to boardController.getTurn(), so on object creation, it is
-     * essential that the current move is intended to be the player.
+     * The search scores every position for the side to move, so Minimax can
+     * play either color.
      *
      * @param boardController
      *      Contains the initial boardController that will be utilized throughout
      *      execution.
      */
     public Minimax(BoardController boardController) {
-        evaluator = new Evaluator(boardController.getBitboard(), boardController.getTurn(), ply);
+        this(boardController, new SearchConfig());
+    }
+
+    /**
+     * Constructor for Minimax that also takes the search configuration, which
+     * decides how large the transposition table is, how many threads search,
+     * and how long minimax() searches for.
+     *
+     * @param boardController
+     *      Contains the initial boardController that will be utilized throughout
+     *      execution.
+     * @param config
+     *      SearchConfig holding the tunable search settings.
+     */
+    public Minimax(BoardController boardController, SearchConfig config) {
+        this.config = config;
+        transpositionTable = new TranspositionTable(config.getHashSizeMb());
+        evalCache = config.getEvalCacheMb() > 0 ? new EvalCache(config.getEvalCacheMb()) : null;
+        mainWorker = new SearchWorker(boardController, transpositionTable, evalCache, stopSignal, config);
+        helpers = new SearchWorker[config.getThreads() - 1];
+        for (int i = 0; i < helpers.length; i++)
+            helpers[i] = new SearchWorker(new BoardController(), transpositionTable, evalCache, stopSignal, config);
     }
 
 
     /**
-     * This is the algorithm invoked to start the search. It generates every
-     * move at the given instance, then will recursively apply each move and
-     * restore the initial state until a branch can possibly be pruned off.
+     * Finds the best move for the game's next turn, searching for the move
+     * time given by the SearchConfig.
      *
      * @param boardController
      *      Current configuration of the boardController on the given call.
@@ -50,248 +83,178 @@ public class Minimax {
      *      the static evaluation.
      */
     public Move minimax(BoardController boardController) {
-        if (ply == MID_GAME_DEPTH)
-            evaluator.stopCentralBonus(); // prevents over-rewarding for the central squares once the game has reached
-                                          // the 20+ move mark.
-
-        // Need to apply the first level to the boardController, so we know which move has
-        // the best subtree evaluation.
-        Move move; Move bestBranch = null;
-        int bestBranchEval = Integer.MIN_VALUE;
-        MoveList moves = boardController.getLegalMoves();
-
-        if (moves.isEmpty())
-            throw new IllegalStateException("Moves list is empty");
-
-
-        char[] loadingBar = new char[moves.size()];
-        Arrays.fill(loadingBar, ' ');
-        int movesDone = 0;
-
+        SearchLimits limits = new SearchLimits();
+        limits.setMoveTime(config.getMoveTimeMillis());
+        return search(boardController, limits);
+    }
 
-        if (ply == 1) {
-            Bitboard bitboard = boardController.getBitboard();
-            while (!moves.isEmpty()) {
-                move = moves.pop();
-                bitboard.virtualMovePiece(move);
-                int eval = evaluator.evaluate(move);
-                if (eval > bestBranchEval) {
-                    bestBranchEval = eval;
-                    bestBranch = move;
-                }
-                bitboard.wipeVirtualization();
-            }
+    /**
+     * Searches the current position with iterative deepening until the
+     * limits are reached. Depth 1 is always completed, so a move is returned
+     * however short the time is. When timed, a new iteration isn't started
+     * once half the budget is used, since it would almost certainly be
+     * abandoned (each iteration takes several times longer than the last).
+     * When iterations are reported, the statistics of the whole search
+     * follow the last iteration's line.
+     *
+     * @param boardController
+     *      Current configuration of the boardController on the given call
+     *      (the one Minimax was constructed with).
+     * @param limits
+     *      maximum depth and time for the search.
+     * @return Move
+     *      best move of the last completed iteration. The search itself works
+     *      on packed moves, so only this result is converted back into a
+     *      Move.
+     * @throws IllegalStateException
+     *      if the game is already over (no legal moves).
+     */
+    public Move search(BoardController boardController, SearchLimits limits) {
+        if (boardController != mainWorker.getBoardController())
+            throw new IllegalArgumentException("Minimax can only search the board it was constructed with");
+        if (boardController.getLegalMoves().isEmpty())
+            throw new IllegalStateException((boardController.isInCheck() ? "Checkmate" : "Stalemate")
+                    + ", there is no move to search");
+
+        stats.reset();
+        stopSignal.set(false);
+        long budget = limits.budgetMillis();
+        long deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + budget * 1_000_000;
+        mainWorker.start(deadline);
+        for (SearchWorker helper : helpers)
+            helper.getStats().reset(); // reported before the helpers start
+        Thread[] threads = null;
+
+        for (int depth = 1; depth <= limits.getMaxDepth(); depth++) {
+            if (!mainWorker.searchDepth(depth))
+                break; // abandoned, keep the result of the last completed iteration
+
+            if (config.isReportIterations())
+                System.out.println(getIterationInfo(depth));
+
+            if (limits.isTimed() && stats.getElapsedMillis() * 2 > budget)
+                break;
+
+            if (threads == null && depth < limits.getMaxDepth())
+                threads = startHelpers(boardController, depth + 1, limits.getMaxDepth(), deadline);
         }
-        else {
-            if (ply >= LOADING_BAR_PLY) { System.out.println(getLoadingBar(loadingBar, movesDone)); } // empty bar
 
-            Piece.Color turnToMove = boardController.getTurn();
-            while (!moves.isEmpty()) {
+        stopHelpers(threads);
+        stats.depth = mainWorker.getStats().getDepth();
+        if (config.isReportIterations())
+            System.out.println("search " + stats);
 
-                move = moves.pop();
-                try {
-                    SaveState saveLoc = boardController.saveGameState();
-                    boardController.applyMinimaxMove(move);
-                    int subtreeVal = alphaBeta(boardController, 2, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return PackedMove.toMove(mainWorker.getBestMove());
+    }
 
-                    if (subtreeVal > bestBranchEval) {
-                        bestBranchEval = subtreeVal;
-                        bestBranch = move;
-                    }
-                    boardController.restoreGameState(saveLoc, turnToMove);
-                }
-                catch (IllegalArgumentException e) {
-                    // King attempted to put itself in check, ignore this branch
-                }
-                if (ply >= LOADING_BAR_PLY) { // only use the loading bar when wait will make the visual useful
-                    System.out.println(getLoadingBar(loadingBar, ++movesDone));
-                }
-            }
+    /**
+     * Copies the position into every helper worker and starts each of them
+     * on its own thread. Every other helper starts one iteration deeper than
+     * the main worker, so the helpers don't all follow the same search.
+     *
+     * @return the started threads (an empty array with no helpers).
+     */
+    private Thread[] startHelpers(BoardController boardController, int depth, int maxDepth, long deadline) {
+        Thread[] threads = new Thread[helpers.length];
+        SaveState position = boardController.saveGameState();
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i].getBoardController().restoreGameState(position, boardController.getTurn());
+            helpers[i].setDepthRange(Math.min(depth + (i & 1), maxDepth), maxDepth);
+            helpers[i].start(deadline);
+            threads[i] = new Thread(helpers[i], "search-helper-" + (i + 1));
+            threads[i].setDaemon(true);
+            threads[i].start();
         }
-
-        if (bestBranch == null) { throw new IllegalStateException("bestBranch never initialized"); }
-
-        if (ply <= MAX_PLY)
-            ply += 1; // Iterative Deepening
-
-        return bestBranch;
+        return threads;
     }
 
     /**
-     * Primary recursive algorithm for the Minimax class. This will search each
-     * subtree until currDepth == ply, where it will then start performing
-     * static evaluation, and returning up the tree.
-     * Note: must be invoked with alpha < beta for proper usage.
-     *
+     * Signals the helper workers to stop, waits for them to unwind, and adds
+     * their statistics to the search totals.
      *
-     * @param boardController
-     *      BoardController corresponding to the active instance when invoked.
-     * @param currDepth
-     *      Marker that will indicate when static eval occurs if it reaches the
-     *      ply.
-     * @param alpha
-     *      Alpha value for pruning (start at Integer.MIN_VALUE)
-     * @param beta
-     *      Beta value for pruning (start at Integer.MAX_VALUE)
-     * @return int
-     *      Evaluation for the subtree.
+     * @param threads
+     *      threads returned by startHelpers() (null if none were started).
      */
-    private int alphaBeta(BoardController boardController, int currDepth, int alpha, int beta) {
-        if (alpha >= beta) throw new IllegalStateException("alphaBeta shouldn't be invoked with alpha >= beta");
-
-        MoveList moves = boardController.getLegalMoves();
-        Move nextMove;
-
-        if (currDepth < ply) {
-
-            if (currDepth % 2 == 1) {
-                // Currently on the MAX layer. Can change the alpha value.
-                int nextAlpha;
-                Piece.Color turnToMove = boardController.getTurn();
-                SaveState saveLoc = boardController.saveGameState();
+    private void stopHelpers(Thread[] threads) {
+        stopSignal.set(true);
+        stats.add(mainWorker.getStats());
+        if (threads == null)
+            return;
 
-                while (!moves.isEmpty()) {
-
-                    nextMove = moves.pop();
-                    try {
-                        boardController.applyMinimaxMove(nextMove); // throws exception on illegal move
-                        nextAlpha = alphaBeta(boardController, currDepth + 1, alpha, beta);
-
-                        boardController.restoreGameState(saveLoc, turnToMove);
-                        if (nextAlpha != Integer.MAX_VALUE)
-                            alpha = Math.max(alpha, nextAlpha);
-
-                        if (alpha >= beta)
-                            return alpha; // prune the remaining moves
-                    }
-                    catch (IllegalArgumentException e) { /* Ignore paths for illegal moves */ }
-                    catch (RuntimeException re) {
-                        // Enemy king is captured after this move, heavily incentivize this path without recursive call.
-                        return Integer.MAX_VALUE;
-                    }
-                }
-                return alpha;
+        for (int i = 0; i < threads.length; i++) {
+            try {
+                threads[i].join();
             }
-            else {
-
-                // Currently on the MIN layer. Can change the beta value.
-                int nextBeta;
-                Piece.Color turnToMove = boardController.getTurn();
-                SaveState saveLoc = boardController.saveGameState();
-
-                while (!moves.isEmpty()) {
-                    nextMove = moves.pop();
-                    try {
-                        boardController.applyMinimaxMove(nextMove);
-                        nextBeta = alphaBeta(boardController, currDepth + 1, alpha, beta);
-
-                        boardController.restoreGameState(saveLoc, turnToMove);
-
-                        if (nextBeta != Integer.MIN_VALUE)
-                            beta = Math.min(beta, nextBeta);
-
-                        if (alpha >= beta)
-                            return beta; // prune the remaining moves
-                    } catch (IllegalArgumentException e) { /* Ignore paths for illegal moves */ }
-                    catch (RuntimeException re) {
-                        // Enemy king is captured after this move, heavily incentivize this path without recursive call.
-                        return Integer.MIN_VALUE;
-                    }
-                }
-                return beta;
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             }
+            stats.add(helpers[i].getStats());
         }
-
-        return evaluateMoves(boardController.getBitboard(), moves, (currDepth % 2 == 1), alpha, beta); // once the ply is reached, return the leaf eval.
     }
 
     /**
-     * This method will be invoked whenever the depth hits the max ply. It will
-     * generate all the current moves, evaluate the boardController at each move state,
-     * then return the value corresponding to whether it is a max or min layer.
+     * Getter for the principal variation of the most recent search: the move
+     * returned, followed by the line the search expects to be played.
      *
-     * @param bBoard
-     *      Bitboard object representing the current state. This will be used
-     *      for the move virtualization, which is a highly efficient way to
-     *      temporarily apply moves without any hard copies.
-     * @param moves
-     *      MoveList containing all the moves at the current state
-     * @param maxLayer
-     *      Flag used to indicate if the leaves to be evaluated will be
-     *      considered for the min or max layer.
-     * @param alpha
-     *      Current alpha value of the sub-branch. If maxLayer, we may be able
-     *      to prune the branch.
-     * @param beta
-     *      Current beta value of the sub-branch. If not maxLayer, we may be
-     *      able to prune the branch.
-     * @return int
-     *      maximum evaluation (if maxLayer), minimum evaluation (if not
-     *      maxLayer)
+     * @return moves of the line.
      */
-    private int evaluateMoves(Bitboard bBoard, MoveList moves, boolean maxLayer, int alpha, int beta) {
-        int evaluation;
-
-        if (maxLayer) {
-            // On a MAX layer. Return up the new alpha value.
-
-            while (!moves.isEmpty()) {
-                Move move = moves.pop();
-                try {
-                    bBoard.virtualMovePiece(move);
-                    evaluation = evaluator.evaluate(move);
-                    alpha = Math.max(alpha, evaluation);
-
-                    if (alpha >= beta)
-                        return alpha;
-                    bBoard.wipeVirtualization();
+    public Move[] getPrincipalVariation() {
+        int[] line = mainWorker.getPrincipalVariation();
+        Move[] moves = new Move[line.length];
+        for (int i = 0; i < line.length; i++)
+            moves[i] = PackedMove.toMove(line[i]);
 
-                } catch (IllegalArgumentException e) {  /*  TODO: De-incentivize paths that lead to illegal options */}
-            }
-            return alpha;
-        }
-
-        // On a MIN layer. Return up the new beta value.
-        while (!moves.isEmpty()) {
-            Move move = moves.pop();
-            try {
-                bBoard.virtualMovePiece(move);
-                evaluation = evaluator.evaluate(move);
-                beta = Math.min(beta, evaluation);
-
-                if (alpha >= beta)
-                    return beta;
-            } catch (IllegalArgumentException e) {  /*  TODO: De-incentivize paths that lead to illegal options */}
-            bBoard.wipeVirtualization();
-
-        }
-
-        return beta;
+        return moves;
+    }
 
+    /**
+     * Getter for the statistics of the most recent search, totalled across
+     * every worker.
+     *
+     * @return SearchStats
+     */
+    public SearchStats getStats() {
+        return stats;
     }
 
     /**
-     * Basic loading bar used to indicate progress when the max ply is hit.
-     * While not necessary, it provides a nice way to indicate progression and
-     * add one additional depth layer without making it feel significantly
-     * slower.
+     * Builds the line reported after each completed iteration. The node
+     * count includes the helper workers still running, so it is approximate
+     * with more than one thread.
      *
-     * @param loadingBar
-     *      char array state (default is all space chars).
-     * @param movesDone
-     *      number of moves computed at the 2nd level.
+     * @param depth
+     *      depth of the completed iteration.
      * @return String
-     *      loading bar representation at the current stage.
+     *      depth, score (or moves to mate), time, nodes and principal variation of the
+     *      iteration.
      */
-    private String getLoadingBar(char[] loadingBar, int movesDone) {
-        StringBuilder out = new StringBuilder("Loading... [");
-
-        if (movesDone > 0)
-            loadingBar[movesDone - 1] = '=';
-
-        out.append(loadingBar);
-        out.append(']');
+    private String getIterationInfo(int depth) {
+        long millis = stats.getElapsedMillis();
+        long nodes = mainWorker.getStats().getNodes();
+        for (SearchWorker helper : helpers)
+            nodes += helper.getStats().getNodes();
+
+        int mate = SearchWorker.movesToMate(mainWorker.getScore());
+        String score = mate == 0 ? "score " + mainWorker.getScore() : "mate " + mate;
+        return String.format("depth %d %s time %d ms nodes %d (%d nps) pv %s", depth, score, millis, nodes,
+                nodes * 1000 / Math.max(1, millis), translateLine(getPrincipalVariation()));
+    }
 
-        return out.toString() ;
+    /**
+     * Translates a line of moves into text, separated by spaces.
+     *
+     * @param line
+     *      moves to translate.
+     * @return String
+     */
+    private String translateLine(Move[] line) {
+        StringBuilder text = new StringBuilder();
+        for (Move move : line) {
+            if (!text.isEmpty())
+                text.append(' ');
+            text.append(otu.translate(move));
+        }
+        return text.toString();
     }
 }
@@ -0,0 +1,195 @@
+package com.github.camsmith03;
+
+/**
+ * <p>
+ * Preallocated move storage for a single ply of the search. The search keeps
+ * one buffer per ply (its search stack), and each node generates its moves
+ * straight into the buffer of its ply, so no list or heap is built per node.
+ * </p><p>
+ * Every move gets an ordering score in a parallel array when generated. The
+ * moves are then handed out by incremental selection: next() scans the
+ * remaining moves for the highest score and swaps it to the front. Only the
+ * moves actually searched get sorted, which matters since most nodes cut off
+ * after the first move or two. In the main search, the scores are refined
+ * with order(), which ranks the quiet moves by what MoveOrdering learned from
+ * earlier cutoffs.
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class MoveBuffer {
+    public static final int MAX_MOVES = 256; // more than the most legal moves possible in a position (218)
+    private static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int[] CAPTURE_VALUE = {1, 3, 3, 5, 9, 0, 0}; // indexed by captured type, NONE adds nothing
+    private static final int[] MOVED_VALUE = {1, 3, 2, 0, 0, 0};      // indexed by moved type
+    private final int[] moves = new int[MAX_MOVES];
+    private final int[] scores = new int[MAX_MOVES];
+    private int size;
+    private int next; // index of the first move not yet handed out by next()
+
+    /**
+     * Replaces the contents of the buffer with the legal moves of the side to
+     * move, and scores each of them for ordering.
+     *
+     * @param moveGenerator
+     *      generator used to find the moves.
+     * @param bitboard
+     *      current state of the board.
+     * @param turnToMove
+     *      color to generate the moves for.
+     */
+    public void generate(MoveGenerator moveGenerator, Bitboard bitboard, Piece.Color turnToMove) {
+        size = moveGenerator.generateMoves(bitboard, turnToMove, moves);
+        next = 0;
+        for (int i = 0; i < size; i++)
+            scores[i] = orderScore(moves[i]);
+    }
+
+    /**
+     * Replaces the contents of the buffer with only the legal captures and
+     * promotions of the side to move (see MoveGenerator.generateCaptures()),
+     * scored for ordering.
+     *
+     * @param moveGenerator
+     *      generator used to find the moves.
+     * @param bitboard
+     *      current state of the board.
+     * @param turnToMove
+     *      color to generate the moves for.
+     */
+    public void generateCaptures(MoveGenerator moveGenerator, Bitboard bitboard, Piece.Color turnToMove) {
+        size = moveGenerator.generateCaptures(bitboard, turnToMove, moves);
+        next = 0;
+        for (int i = 0; i < size; i++)
+            scores[i] = orderScore(moves[i]);
+    }
+
+    /**
+     * Rescores the generated moves for the main search: captures and
+     * promotions are lifted above every quiet move (or dropped below them if
+     * they lose material), while quiet moves are scored by the killer,
+     * counter move and history tables. The static score is kept as a
+     * tie-breaker.
+     *
+     * @param ordering
+     *      tables of the searching worker.
+     * @param currDepth
+     *      depth of the node in the tree.
+     * @param previousMove
+     *      move that led to the node (PackedMove.NONE at the root).
+     */
+    public void order(MoveOrdering ordering, int currDepth, int previousMove) {
+        for (int i = 0; i < size; i++) {
+            int move = moves[i];
+            if (PackedMove.isCapture(move) || PackedMove.isPromotion(move))
+                scores[i] += ordering.captureScore(move);
+            else
+                scores[i] += ordering.score(move, currDepth, previousMove);
+        }
+    }
+
+    /**
+     * Moves the move matching the encoded transposition table move ahead of
+     * every other move, so it is the first one returned by next().
+     *
+     * @param encodedMove
+     *      value from TranspositionTable.bestMove().
+     * @return true if the move was found; false otherwise.
+     */
+    public boolean prioritize(int encodedMove) {
+        if (encodedMove == 0)
+            return false;
+
+        for (int i = next; i < size; i++) {
+            if (TranspositionTable.matchesMove(encodedMove, moves[i])) {
+                scores[i] = HASH_MOVE_SCORE;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the given packed move ahead of every other move, such as the best
+     * move of the previous iteration at the root.
+     *
+     * @param move
+     *      packed move to search first (PackedMove.NONE is ignored).
+     * @return true if the move was found; false otherwise.
+     */
+    public boolean prioritizeMove(int move) {
+        if (move == PackedMove.NONE)
+            return false;
+
+        for (int i = next; i < size; i++) {
+            if (moves[i] == move) {
+                scores[i] = HASH_MOVE_SCORE;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the highest scoring move not yet returned, swapping it into
+     * place so the following call only scans what remains.
+     *
+     * @return packed move, or PackedMove.NONE once every move was returned.
+     */
+    public int next() {
+        if (next == size)
+            return PackedMove.NONE;
+
+        int best = next;
+        for (int i = next + 1; i < size; i++) {
+            if (scores[i] > scores[best])
+                best = i;
+        }
+
+        int move = moves[best];
+        moves[best] = moves[next];
+        scores[best] = scores[next];
+        moves[next] = move;
+        next++;
+        return move;
+    }
+
+    /**
+     * Getter for the number of moves generated.
+     *
+     * @return number of moves
+     */
+    public int size() { return size; }
+
+    /**
+     * Method to check if no moves were generated. After a full generation,
+     * this means checkmate or stalemate.
+     *
+     * @return true if empty; false otherwise.
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Relative move value used for ordering. This is used in the move
+     * ordering heuristic to keep the higher priority moves closer to the
+     * front, thus leading their branches to be explored first. Captures are
+     * valued by the captured piece, with promotions (queens especially) and
+     * castling rewarded on top.
+     *
+     * @param move
+     *      packed move.
+     * @return ordering score (small and non-negative).
+     */
+    static int orderScore(int move) {
+        int value = CAPTURE_VALUE[PackedMove.captured(move)];
+        int promoted = PackedMove.promoted(move);
+        if (promoted != PackedMove.NO_PIECE)
+            value += promoted == Piece.Type.QUEEN.ordinal() ? 20 : 3;
+
+        if (PackedMove.isCastle(move))
+            value += 10;
+
+        return value + MOVED_VALUE[PackedMove.moved(move)];
+    }
+}
@@ -7,23 +7,40 @@ package com.github.camsmith03;
  * moves.
  *
  * @author Cameron Smith
- * @version 08.26.2024
+ * @version 10.18.2026
  */
 public class MoveGenerator {
-    private MoveList possibleMoves;
+    private int[] moveBuffer; // array the moves are written to, starting from index 0
+    private int moveCount;
+    private long quietMask; // squares a non-capture may land on (none when only captures are generated)
+    private final int[] listBuffer = new int[MoveBuffer.MAX_MOVES]; // used when filling a MoveList
     private Bitboard bitboard;
     private long[][] boards;
     private long gameBoard;
-    private final long alternatingByteMask = 0xFF00FF00FF00FF00L;
+    private long[] colorBoards;
+    private int kingSquare;
+    private long checkMask; // squares a non-king move must land on (everything, unless the king is in check)
+    private long pinned; // pieces pinned to the king
+    private final long[] pinRays = new long[64]; // ray each pinned piece is restricted to, indexed by its square
+    private static final int[] PROMOTIONS = {Piece.Type.QUEEN.ordinal(), Piece.Type.ROOK.ordinal(),
+            Piece.Type.BISHOP.ordinal(), Piece.Type.KNIGHT.ordinal()};
 
     /**
-     * Generates all moves that cam be made for the current board configuration.
-     * The only illegal moves that will get added are those that would put the
-     * king into the checked position. It is the job of the caller to test each
-     * move and ensure it doesn't lead to such conditions. This made the most
-     * sense, since every move needs to be applied to observe if the king is in
-     * check. Thus, it made sense to reserve such conditions for when moves will
-     * be made.
+     * <p>
+     * Generates all legal moves that can be made for the current board
+     * configuration. The pieces giving check and the pieces pinned to the king
+     * are found once up front, which restricts where every other piece may
+     * move:
+     * <ul>
+     * <li>In double check, only the king can move.</li>
+     * <li>In single check, a move must capture the checking piece or block the
+     * squares between it and the king.</li>
+     * <li>A pinned piece may only move along the ray of its pin.</li>
+     * </ul>
+     * The king is only moved to squares the opponent doesn't attack, and en
+     * passant captures are verified separately, since removing two pawns from
+     * the same rank can expose the king.
+     * </p>
      *
      * @param bitboard
      *      corresponding to the current state the game is in.
@@ -32,429 +49,278 @@ public class MoveGenerator {
      * @return MoveList
      */
     public MoveList generateMoves(Bitboard bitboard, Piece.Color turnToMove) {
-        possibleMoves = new MoveList();
-        this.bitboard = bitboard;
-        boards = bitboard.getVirtualBoards();
-        gameBoard = bitboard.getGameBoard();
-
-        if (turnToMove == Piece.Color.WHITE) {
-            long[] white = boards[0];
-            knightAppend(white[1], Piece.Color.WHITE);
-            bishopAppend(white[2], Piece.Type.BISHOP, Piece.Color.WHITE);
-            bishopAppend(white[4], Piece.Type.QUEEN, Piece.Color.WHITE);
-            rookAppend(white[4], Piece.Type.QUEEN, Piece.Color.WHITE);
-            whitePawnAppend(white[0]);
-            rookAppend(white[3], Piece.Type.ROOK, Piece.Color.WHITE);
-            kingAppend(white[5], Piece.Color.WHITE);
-        }
-        else {
-            long[] black = boards[1];
-            knightAppend(black[1], Piece.Color.BLACK);
-            bishopAppend(black[2], Piece.Type.BISHOP, Piece.Color.BLACK);
-            bishopAppend(black[4], Piece.Type.QUEEN, Piece.Color.BLACK);
-            rookAppend(black[4], Piece.Type.QUEEN, Piece.Color.BLACK);
-            blackPawnAppend(black[0]);
-            rookAppend(black[3], Piece.Type.ROOK, Piece.Color.BLACK);
-            kingAppend(black[5], Piece.Color.BLACK);
-        }
+        int count = generateMoves(bitboard, turnToMove, listBuffer);
+        MoveList possibleMoves = new MoveList();
+        for (int i = 0; i < count; i++)
+            possibleMoves.add(listBuffer[i]);
 
         return possibleMoves;
     }
 
     /**
-     * Finds all legal moves for the white pawns on the board. While admittedly
-     * it doesn't make sense to separate the white from black pawn moves. For
-     * the sake of simplicity in the underlying bitwise operations, it was more
-     * practical (and safer) to choose this implementation over others.
+     * Generates all legal moves (see generateMoves(Bitboard, Piece.Color))
+     * straight into the given array in their packed form (see PackedMove).
+     * This is what the search uses, since the array is preallocated and
+     * nothing gets allocated per call.
      *
-     * @param pawns
-     *      masking bits for all the white pawns on the current board.
+     * @param bitboard
+     *      corresponding to the current state the game is in.
+     * @param turnToMove
+     *      color to generate the moves for.
+     * @param moves
+     *      array receiving the moves (at least MoveBuffer.MAX_MOVES long).
+     * @return number of moves written.
      */
-    private void whitePawnAppend(long pawns) {
-        long gameBoard = bitboard.getGameBoard();
-
-        // Move up 1
-        long pawnMoves1 = (pawns << 8)  & ~gameBoard;
-        while (pawnMoves1 != 0) {
-            long pawn = pawnMoves1 & -pawnMoves1;
-            if ((pawn & 0xFF00000000000000L) != 0) {
-                // Pawn promoted
-                possibleMoves.add(pawn >>> 8, pawn, Piece.Type.PAWN, Piece.Color.WHITE, Piece.Type.NONE, Piece.Type.KNIGHT);
-                possibleMoves.add(pawn >>> 8, pawn, Piece.Type.PAWN, Piece.Color.WHITE, Piece.Type.NONE, Piece.Type.BISHOP);
-                possibleMoves.add(pawn >>> 8, pawn, Piece.Type.PAWN, Piece.Color.WHITE, Piece.Type.NONE, Piece.Type.QUEEN);
-            }
-            else
-                pieceAppend(pawn >>> 8, pawn, Piece.Type.PAWN, Piece.Color.WHITE);
-
-            pawnMoves1 ^= pawn;
-        }
-
-        // Move up 2 (only from starting square)
-        long pawnMoves2 = ((pawns & 0xFF00L) << 16) & ~gameBoard;
-        pawnMoves2 = pawnMoves2 & ~(gameBoard << 8); // prevent pawn from jumping over another piece
-
-        while (pawnMoves2 != 0) {
-            long pawn = pawnMoves2 & -pawnMoves2;
-            pieceAppend(pawn >>> 16, pawn, Piece.Type.PAWN, Piece.Color.WHITE);
-            pawnMoves2 ^= pawn;
-        }
-
-        // Capture (not en passant)
-        long pawnCaptured = pawns;
-        long pMask;
-        while (pawnCaptured != 0) {
-            long pawn = pawnCaptured & -pawnCaptured;
-            long pShift = (pawn << 8);
-            if ( (pShift & alternatingByteMask) != 0)
-                pMask = alternatingByteMask;
-            else
-                pMask = ~alternatingByteMask;
-
-
-            if (((pShift << 1) & pMask) != 0) // If pawn is not on right edge of the board
-                pawnCapture(pawn, pShift << 1, Piece.Color.WHITE);
-
-            if (((pShift >>> 1) & pMask) != 0) // If pawn is not on left edge of the board
-                pawnCapture(pawn, pShift >>> 1, Piece.Color.WHITE);
-
-            pawnCaptured ^= pawn;
-        }
-
-        // Capture (en passant)
-        if (bitboard.enPassantBoard != 0) {
-            long whitePawns = pawns & bitboard.enPassantBoard;
-            if (whitePawns != 0) {
-                long blackPawn = bitboard.enPassantBoard ^ whitePawns;
-                long whitePawn = whitePawns & -whitePawns;
-
-                Move enPassant = new Move(whitePawn, blackPawn << 8, Piece.Type.PAWN, Piece.Color.WHITE, Piece.Type.PAWN);
-
-                enPassant.setEnPassant(blackPawn);
-                possibleMoves.addMove(enPassant);
-
-
-                if (whitePawns != whitePawn) {
-                    // Double en passant (two white pawns can perform the attack)
-                    // Rare, but plausible, so condition is here to ensure correct moves generated
-                    whitePawn ^= whitePawns;
-                    enPassant = new Move(whitePawn, blackPawn << 8, Piece.Type.PAWN, Piece.Color.WHITE, Piece.Type.PAWN);
-
-                    enPassant.setEnPassant(blackPawn);
-                    possibleMoves.addMove(enPassant);
-                }
-            }
-        }
-
+    public int generateMoves(Bitboard bitboard, Piece.Color turnToMove, int[] moves) {
+        quietMask = -1L;
+        return generate(bitboard, turnToMove, moves);
     }
 
     /**
-     * This will find all the black pawn moves that can be made for the current
-     * board state. See above for details on why the separation was made.
+     * Generates only the legal captures (en passant included) and pawn
+     * promotions, straight into the given array. This is the move set
+     * searched by quiescence, where quiet moves are left out so the search
+     * only resolves the pending exchanges of a position.
      *
-     * @param pawns
-     *      masking bits for all the plack pawns on the current board.
+     * @param bitboard
+     *      corresponding to the current state the game is in.
+     * @param turnToMove
+     *      color to generate the moves for.
+     * @param moves
+     *      array receiving the moves (at least MoveBuffer.MAX_MOVES long).
+     * @return number of moves written.
      */
-    private void blackPawnAppend(long pawns) {
-        long gameBoard = bitboard.getGameBoard();
-
-        // Move down 1
-        long pawnMoves1 = (pawns >>> 8)  & ~gameBoard;
-        while (pawnMoves1 != 0) {
-            long pawn = pawnMoves1 & -pawnMoves1;
-
-            if ((pawn & 0x00FF) != 0) {
-                // Promoted Pawns
-                possibleMoves.add(pawn << 8, pawn, Piece.Type.PAWN, Piece.Color.BLACK, Piece.Type.NONE, Piece.Type.KNIGHT);
-                possibleMoves.add(pawn << 8, pawn, Piece.Type.PAWN, Piece.Color.BLACK, Piece.Type.NONE, Piece.Type.BISHOP);
-                possibleMoves.add(pawn << 8, pawn, Piece.Type.PAWN, Piece.Color.BLACK, Piece.Type.NONE, Piece.Type.QUEEN);
-            }
-            else
-                pieceAppend(pawn << 8, pawn, Piece.Type.PAWN, Piece.Color.BLACK);
-
-            pawnMoves1 ^= pawn;
-        }
-
-        // Move down 2 (only from starting square)
-        long pawnMoves2 = ((pawns & 0x00FF000000000000L) >>> 16) & ~gameBoard;
-        pawnMoves2 = pawnMoves2 & ~(gameBoard >>> 8); // prevent pawn from jumping over another piece
-
-        while (pawnMoves2 != 0) {
-            long pawn = pawnMoves2 & -pawnMoves2;
-            pieceAppend(pawn << 16, pawn, Piece.Type.PAWN, Piece.Color.BLACK);
-            pawnMoves2 ^= pawn;
-        }
-
-        // Capture (not en passant)
-        long pawnCaptured = pawns;
-        long pMask;
-        while (pawnCaptured != 0) {
-            long pawn = pawnCaptured & -pawnCaptured;
-            long pShift = (pawn >>> 8);
-            if ( (pShift & alternatingByteMask) != 0)
-                pMask = alternatingByteMask;
-            else
-                pMask = ~alternatingByteMask;
-
-            if (((pShift << 1) & pMask) != 0) // If pawn is not on right edge of the board
-                pawnCapture(pawn, pShift << 1, Piece.Color.BLACK);
-
-            if (((pShift >>> 1) & pMask) != 0) // If pawn is not on left edge of the board
-                pawnCapture(pawn, pShift >>> 1, Piece.Color.BLACK);
-
-            pawnCaptured ^= pawn;
-        }
-
-        // Capture (en passant)
-        if (bitboard.enPassantBoard != 0) {
-            long blackPawns = pawns & bitboard.enPassantBoard;
-            if (blackPawns != 0) {
+    public int generateCaptures(Bitboard bitboard, Piece.Color turnToMove, int[] moves) {
+        quietMask = 0;
+        return generate(bitboard, turnToMove, moves);
+    }
 
-                long whitePawn = bitboard.enPassantBoard ^ blackPawns;
-                long blackPawn = blackPawns & -blackPawns;
+    /**
+     * Shared body of generateMoves() and generateCaptures(). Which moves are
+     * kept is decided by quietMask.
+     */
+    private int generate(Bitboard bitboard, Piece.Color turnToMove, int[] moves) {
+        moveBuffer = moves;
+        moveCount = 0;
+        this.bitboard = bitboard;
+        boards = bitboard.getVirtualBoards();
+        colorBoards = bitboard.getVirtualColorBoards();
+        gameBoard = colorBoards[0] | colorBoards[1];
 
-                Move enPassant = new Move(blackPawn, whitePawn >>> 8, Piece.Type.PAWN, Piece.Color.BLACK, Piece.Type.PAWN);
+        int colorIndex = turnToMove.ordinal();
+        long[] own = boards[colorIndex];
+        kingSquare = Long.numberOfTrailingZeros(own[5]);
+        long checkers = bitboard.attackersTo(kingSquare, gameBoard) & colorBoards[1 - colorIndex];
 
-                enPassant.setEnPassant(whitePawn);
-                possibleMoves.addMove(enPassant);
+        kingAppend(own[5], turnToMove, checkers == 0);
+        if ((checkers & (checkers - 1)) != 0)
+            return moveCount; // double check, only the king can move
 
+        checkMask = checkers == 0 ? -1L : checkers | AttackTables.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        pinned = bitboard.pinnedPieces(colorIndex, pinRays);
 
-                if (blackPawns != blackPawn) {
-                    // Double en passant (two black pawns can perform attack)
-                    // Rare, but plausible, so condition is here to ensure correct moves generated
-                    blackPawn ^= blackPawns;
-                    enPassant = new Move(blackPawn, whitePawn >>> 8, Piece.Type.PAWN, Piece.Color.BLACK,
-                            Piece.Type.PAWN);
+        knightAppend(own[1] & ~pinned, turnToMove); // a pinned knight can never stay on its pin ray
+        bishopAppend(own[2], turnToMove);
+        queenAppend(own[4], turnToMove);
+        pawnAppend(own[0], turnToMove);
+        rookAppend(own[3], turnToMove);
 
-                    enPassant.setEnPassant(whitePawn);
-                    possibleMoves.addMove(enPassant);
-                }
-            }
-        }
+        return moveCount;
     }
 
     /**
-     * Specialized helper method for both white and black pawn append that will
-     * add the pawn capturing moves to the MoveList. This needs to check if the
-     * move itself landed on any opposing pieces.
+     * Finds all legal moves for the pawns of the given color, including
+     * promotions (to every piece) and en passant captures. The pawn attacks
+     * come from AttackTables, so white and black share the same code aside
+     * from the push direction.
      *
-     * @param oldLoc
-     *      starting location for the pawn.
-     * @param newLoc
-     *      ending location for the pawn (along a diagonal).
+     * @param pawns
+     *      masking bits for all the pawns of the color on the current board.
      * @param color
-     *      color of the pawn making the capture.
+     *      color of the pawns.
      */
-    private void pawnCapture(long oldLoc, long newLoc, Piece.Color color) {
-        if (newLoc != 0) {
-            Piece captured = bitboard.getPiece(newLoc);
-            if (captured != null) {
-                if (color != captured.color) {
-                    if ((newLoc & 0xFF000000000000FFL) != 0) {
-                        // Captured piece AND pawn promotion
-                        possibleMoves.addMove(new Move(oldLoc, newLoc, Piece.Type.PAWN, color, captured.type, Piece.Type.KNIGHT));
-                        possibleMoves.addMove(new Move(oldLoc, newLoc, Piece.Type.PAWN, color, captured.type, Piece.Type.BISHOP));
-                        possibleMoves.addMove(new Move(oldLoc, newLoc, Piece.Type.PAWN, color, captured.type, Piece.Type.QUEEN));
-                    }
-                    else // Captured piece
-                        possibleMoves.add(oldLoc, newLoc, Piece.Type.PAWN, color, captured.type, Piece.Type.NONE);
+    private void pawnAppend(long pawns, Piece.Color color) {
+        int colorIndex = color.ordinal();
+        long empty = ~gameBoard;
+        long oppBoard = colorBoards[1 - colorIndex];
+        long startRank = colorIndex == 0 ? 0x000000000000FF00L : 0x00FF000000000000L;
+        long promotionRank = colorIndex == 0 ? 0xFF00000000000000L : 0x00000000000000FFL;
+
+        long pawnIter = pawns;
+        while (pawnIter != 0) {
+            long pawn = pawnIter & -pawnIter;
+            int from = Long.numberOfTrailingZeros(pawn);
+
+            // Move up (or down for black) 1, then 2 from the starting square if the first square was free
+            long push = (colorIndex == 0 ? pawn << 8 : pawn >>> 8) & empty;
+            long targets = push;
+            if (push != 0 && (pawn & startRank) != 0)
+                targets |= (colorIndex == 0 ? push << 8 : push >>> 8) & empty;
+            targets &= quietMask | promotionRank; // pushing onto the last rank is a promotion, never quiet
+
+            // Capture (not en passant)
+            targets |= AttackTables.pawnAttacks(colorIndex, from) & oppBoard;
+            targets &= checkMask & pinMask(pawn);
+
+            while (targets != 0) {
+                long to = targets & -targets;
+                int captured = (to & oppBoard) != 0 ? capturedType(to) : PackedMove.NO_PIECE;
+                int toSquare = Long.numberOfTrailingZeros(to);
+                if ((to & promotionRank) != 0) {
+                    // Pawn promoted
+                    for (int promoted : PROMOTIONS)
+                        append(PackedMove.encode(from, toSquare, 0, colorIndex, captured, promoted, 0));
                 }
+                else
+                    append(PackedMove.encode(from, toSquare, 0, colorIndex, captured, PackedMove.NO_PIECE, 0));
+
+                targets ^= to;
+            }
+            pawnIter ^= pawn;
+        }
+
+        // Capture (en passant)
+        if (bitboard.enPassantBoard != 0) {
+            long capturedPawn = bitboard.enPassantBoard & boards[1 - colorIndex][0];
+            long capturers = bitboard.enPassantBoard & pawns;
+            long to = colorIndex == 0 ? capturedPawn << 8 : capturedPawn >>> 8;
+
+            // Two pawns may be able to perform the attack. Rare, but plausible, so each is tried in turn.
+            while (capturers != 0) {
+                long pawn = capturers & -capturers;
+
+                // Both pawns leave the rank at once, so the pin masks can't be trusted here. Instead, see whether the
+                // king is attacked on the board after the capture (this also covers capturing a checking pawn).
+                long occupied = (gameBoard ^ pawn ^ capturedPawn) | to;
+                long attackers = bitboard.attackersTo(kingSquare, occupied) & oppBoard & ~capturedPawn;
+                if (attackers == 0)
+                    append(PackedMove.encode(Long.numberOfTrailingZeros(pawn), Long.numberOfTrailingZeros(to), 0,
+                            colorIndex, 0, PackedMove.NO_PIECE, PackedMove.EN_PASSANT));
+                capturers ^= pawn;
             }
         }
     }
 
     /**
      * This will find all the moves that the king can currently make. This
-     * includes the moves involving the king being castled.
+     * includes the moves involving the king being castled. Every destination
+     * is checked against the opponent's attacks with the king removed from the
+     * board, so the king can't step backwards along the ray of a slider
+     * checking it.
      *
      * @param king
      *      masking bit for the location the king is currently at.
      * @param color
      *      color corresponding to the king in question.
+     * @param canCastle
+     *      false when the king is in check (castling out of check is illegal).
      */
-    private void kingAppend(long king, Piece.Color color) {
-        long kingMask;
-        if ((king & alternatingByteMask) != 0)
-            kingMask = alternatingByteMask;
-        else
-            kingMask = ~alternatingByteMask;
-
-        if (((king << 1) & kingMask) != 0) {
-            pieceAppend(king, king << 1, Piece.Type.KING, color);
-            pieceAppend(king, (king << 1) << 8, Piece.Type.KING, color);
-            pieceAppend(king, (king << 1) >>> 8, Piece.Type.KING, color);
-        }
-
-        if (((king >>> 1) & kingMask) != 0) {
-            pieceAppend(king, king >>> 1, Piece.Type.KING, color);
-            pieceAppend(king, (king >>> 1) << 8, Piece.Type.KING, color);
-            pieceAppend(king, (king >>> 1) >>> 8, Piece.Type.KING, color);
+    private void kingAppend(long king, Piece.Color color, boolean canCastle) {
+        int colorIndex = color.ordinal();
+        long oppBoard = colorBoards[1 - colorIndex];
+        long occupied = gameBoard ^ king;
+
+        long targets = AttackTables.kingAttacks(kingSquare) & ~colorBoards[colorIndex] & (oppBoard | quietMask);
+        while (targets != 0) {
+            long to = targets & -targets;
+            int toSquare = Long.numberOfTrailingZeros(to);
+            if (!bitboard.isSquareAttacked(toSquare, 1 - colorIndex, occupied)) {
+                int captured = (to & oppBoard) != 0 ? capturedType(to) : PackedMove.NO_PIECE;
+                append(PackedMove.encode(kingSquare, toSquare, 5, colorIndex, captured, PackedMove.NO_PIECE, 0));
+            }
+            targets ^= to;
         }
-        pieceAppend(king, king << 8, Piece.Type.KING, color);
-        pieceAppend(king, king >>> 8, Piece.Type.KING, color);
 
-        int colorIndex = color.ordinal();
-        if (boards[colorIndex][6] != 0) {
+        long castleRooks = boards[colorIndex][6] & boards[colorIndex][3];
+        if (canCastle && castleRooks != 0 && quietMask != 0) {
             long kingPos = 0x0010L << (56 * colorIndex); // shifts up to compensate if black moves are being calculated,
                                                          // no shifts made for white.
 
             // ensure the king exists at the starting location
             if (king == kingPos) {
                 long rookPos = 0x0001L << (56 * colorIndex);
-                // Check Queen side castle
-                if ((rookPos & boards[colorIndex][6]) == rookPos) {
+                // Check Queen side castle (the king may not pass through or land on an attacked square)
+                if ((rookPos & castleRooks) == rookPos) {
                     long freeSquares = king >>> 1 | king >>> 2 | king >>> 3;
-                    if ((gameBoard & freeSquares) == 0) { // check the middle squares to ensure they aren't occupied.
-                        Move queenSideCastle = new Move(king, king >>> 2, Piece.Type.KING, color);
-                        queenSideCastle.setCastledRook(Move.CastleSide.QUEEN_SIDE);
-                        possibleMoves.addMove(queenSideCastle);
-                    }
+                    if ((gameBoard & freeSquares) == 0 // check the middle squares to ensure they aren't occupied.
+                            && !bitboard.isSquareAttacked(kingSquare - 1, 1 - colorIndex, gameBoard)
+                            && !bitboard.isSquareAttacked(kingSquare - 2, 1 - colorIndex, gameBoard))
+                        append(PackedMove.encode(kingSquare, kingSquare - 2, 5, colorIndex,
+                                PackedMove.NO_PIECE, PackedMove.NO_PIECE, PackedMove.CASTLE));
                 }
                 // Check King side castle
                 rookPos = rookPos << 7; // swap the rookPos to the other side;
-                if ((rookPos & boards[colorIndex][6]) == rookPos) {
+                if ((rookPos & castleRooks) == rookPos) {
                     long freeSquares = king << 1 | king << 2;
-                    if ((gameBoard & freeSquares) == 0) {
-                        Move kingSideCastle = new Move(king, king << 2, Piece.Type.KING, color);
-                        kingSideCastle.setCastledRook(Move.CastleSide.KING_SIDE);
-                        possibleMoves.addMove(kingSideCastle);
-                    }
+                    if ((gameBoard & freeSquares) == 0
+                            && !bitboard.isSquareAttacked(kingSquare + 1, 1 - colorIndex, gameBoard)
+                            && !bitboard.isSquareAttacked(kingSquare + 2, 1 - colorIndex, gameBoard))
+                        append(PackedMove.encode(kingSquare, kingSquare + 2, 5, colorIndex,
+                                PackedMove.NO_PIECE, PackedMove.NO_PIECE, PackedMove.CASTLE));
                 }
             }
         }
     }
 
     /**
-     * This will find all the moves that the 'rooks' of a specific color can
-     * make on the board. The reason why a type parameter is passed is due to
-     * the Queen having nearly identical behavior. Interfacing with pieceAppend
-     * requires the usage of type, so it was included to simplify the move
-     * adding behavior.
+     * This will find all the moves that the rooks of a specific color can
+     * make on the board. The attack set for each rook comes from a single
+     * magic bitboard lookup (see AttackTables), which already stops at the
+     * first blocker along each ray.
      *
      * @param rooks
-     *      masking bits for the location of the rooks (or queen(s)).
-     * @param type
-     *      type parameter for the pieces rooks refers to.
+     *      masking bits for the location of the rooks.
      * @param color
      *      color parameter for the colors the rooks refers to.
      */
-    private void rookAppend(long rooks, Piece.Type type, Piece.Color color) {
-        long rookMask;
-        long rookLeft, rookRight, rookUp, rookDown;
+    private void rookAppend(long rooks, Piece.Color color) {
         while (rooks != 0) {
             long rook = rooks & -rooks;
-
-            if ((rook & alternatingByteMask) != 0)
-                rookMask = alternatingByteMask;
-            else
-                rookMask = ~alternatingByteMask;
-
-
-            rookLeft = rook >>> 1;
-            while ((rookLeft & rookMask) != 0 && rookLeft != 0) {
-                if (pieceAppend(rook, rookLeft, type, color) == 0)
-                    rookLeft = rookLeft >>> 1;
-                else
-                    rookLeft = 0;
-            }
-
-            rookRight = rook << 1;
-            while ((rookRight & rookMask) != 0 && rookRight != 0) {
-                if (pieceAppend(rook, rookRight, type, color) == 0)
-                    rookRight = rookRight << 1;
-                else
-                    rookRight = 0;
-            }
-
-            rookUp = rook << 8;
-            while (rookUp != 0) {
-                if (pieceAppend(rook, rookUp, type, color) == 0)
-                    rookUp = rookUp << 8;
-                else
-                    rookUp = 0;
-            }
-
-            rookDown = rook >>> 8;
-            while (rookDown != 0) {
-                if (pieceAppend(rook, rookDown, type, color) == 0)
-                    rookDown = rookDown << 8;
-                else
-                    rookDown = 0;
-            }
+            long targets = AttackTables.rookAttacks(Long.numberOfTrailingZeros(rook), gameBoard);
+            targetsAppend(rook, targets & pinMask(rook), Piece.Type.ROOK, color);
             rooks ^= rook;
         }
     }
 
     /**
-     * Finds all the moves that the bishops can make. As with rookAppend, this
-     * takes the type parameter for allowing the queen to be used for the
-     * calculations.
+     * Finds all the moves that the bishops can make. As with rookAppend, the
+     * attack set for each bishop is found with a single table lookup.
      *
      * @param bishops
-     *       masking bits for the location of the bishops (or queen(s)).
-     * @param type
-     *      type parameter for the pieces bishops refers to.
+     *       masking bits for the location of the bishops.
      * @param color
      *      color parameter for the colors the bishops refers to.
      */
-    private void bishopAppend(long bishops, Piece.Type type, Piece.Color color) {
-        long bishopMask;
-        long upperdiag;
-        long lowerdiag;
-
+    private void bishopAppend(long bishops, Piece.Color color) {
         while (bishops != 0) {
             long bishop = bishops & -bishops;
-
-            if ((bishop & alternatingByteMask) != 0)
-                bishopMask = alternatingByteMask;
-            else
-                bishopMask = ~alternatingByteMask;
-
-
-            upperdiag = bishop << 7;
-            lowerdiag = bishop >>> 9;
-            long leftSide = bishop >>> 1;
-            while ((leftSide & bishopMask) != 0 && (upperdiag != 0 || lowerdiag != 0)) {
-                if (upperdiag != 0) {
-                    if (pieceAppend(bishop, upperdiag, type, color) == 0)
-                        upperdiag = upperdiag << 7;
-                    else
-                        upperdiag = 0;
-                }
-                if (lowerdiag != 0) {
-                    if (pieceAppend(bishop, lowerdiag, type, color) == 0)
-                        lowerdiag = lowerdiag >>> 9;
-                    else
-                        lowerdiag = 0;
-                }
-                leftSide = leftSide >>> 1;
-            }
-
-            upperdiag = bishop << 9;
-            lowerdiag = bishop >>> 7;
-            long rightSide = bishop << 1;
-            while ((rightSide & bishopMask) != 0 && (upperdiag != 0 || lowerdiag != 0)) {
-                if (upperdiag != 0) {
-                    if (pieceAppend(bishop, upperdiag, type, color) == 0)
-                        upperdiag = upperdiag << 9; // Bishop hit an empty square, can continue on the diagonal.
-                    else
-                        upperdiag = 0; // Bishop hit nonempty square, can no longer continue on the diagonal.
-
-                }
-                if (lowerdiag != 0) {
-                    if (pieceAppend(bishop, lowerdiag, type, color) == 0)
-                        lowerdiag = lowerdiag >>> 7; // Bishop hit an empty square, can continue on the diagonal.
-                    else
-                        lowerdiag = 0; // Bishop hit nonempty square, can no longer continue on the diagonal.
-                }
-                rightSide = rightSide << 1;
-            }
-
+            long targets = AttackTables.bishopAttacks(Long.numberOfTrailingZeros(bishop), gameBoard);
+            targetsAppend(bishop, targets & pinMask(bishop), Piece.Type.BISHOP, color);
             bishops ^= bishop;
         }
     }
 
     /**
-     * Finds all the moves that the knights can make.
+     * Finds all the moves that the queen(s) can make, using the union of the
+     * rook and bishop attacks from the same square.
+     *
+     * @param queens
+     *      masking bits for the location of the queen(s).
+     * @param color
+     *      color parameter for the colors the queens refers to.
+     */
+    private void queenAppend(long queens, Piece.Color color) {
+        while (queens != 0) {
+            long queen = queens & -queens;
+            long targets = AttackTables.queenAttacks(Long.numberOfTrailingZeros(queen), gameBoard);
+            targetsAppend(queen, targets & pinMask(queen), Piece.Type.QUEEN, color);
+            queens ^= queen;
+        }
+    }
+
+    /**
+     * Finds all the moves that the knights can make. Pinned knights are
+     * filtered out by the caller.
      *
      * @param knights
      *      masking bits for the location of the knights.
@@ -462,68 +328,86 @@ public class MoveGenerator {
      *      color parameter for the color the knights refers to.
      */
     private void knightAppend(long knights, Piece.Color color) {
-        long knightMask;
         while (knights != 0) {
             long knight = knights & -knights;
-            if ((knight & alternatingByteMask) != 0)
-                knightMask = alternatingByteMask;
-            else
-                knightMask = ~alternatingByteMask;
-
-            if (((knight >>> 1) & knightMask) != 0) {
-                if (((knight >>> 2) & knightMask) != 0) {
-                    pieceAppend(knight, (knight << 8) >>> 2, Piece.Type.KNIGHT, color);
-                    pieceAppend(knight, (knight >>> 8) >>> 2, Piece.Type.KNIGHT, color);
-                }
-                pieceAppend(knight, (knight << 16) >>> 1, Piece.Type.KNIGHT, color);
-                pieceAppend(knight, (knight >>> 16) >>> 1, Piece.Type.KNIGHT, color);
-            }
-
-            if (((knight << 1) & knightMask) != 0) {
-                if (((knight << 2) & knightMask) != 0) {
-                    pieceAppend(knight, (knight << 8) << 2, Piece.Type.KNIGHT, color);
-                    pieceAppend(knight, (knight >>> 8) << 2, Piece.Type.KNIGHT, color);
-                }
-                pieceAppend(knight, (knight << 16) << 1, Piece.Type.KNIGHT, color);
-                pieceAppend(knight, (knight >>> 16) << 1, Piece.Type.KNIGHT, color);
-            }
+            targetsAppend(knight, AttackTables.knightAttacks(Long.numberOfTrailingZeros(knight)), Piece.Type.KNIGHT,
+                    color);
             knights ^= knight;
         }
     }
 
     /**
-     * Appends the piece to the MoveList assuming that it satisfies some
-     * conditions.
+     * Adds a move for each square in a piece's attack set. Squares holding a
+     * piece of the same color are masked out, along with any square that
+     * doesn't resolve a check. The remaining squares are split into quiet
+     * moves and captures using the opponent's color board.
      *
-     * @param oldLoc
-     *      single bit representing original location where piece started.
-     * @param newLoc
-     *      single bit representing location that piece was moved to.
+     * @param from
+     *      masking bit for the location of the moving piece.
+     * @param targets
+     *      attack set of the moving piece.
+     * @param type
+     *      type of the moving piece.
      * @param color
-     *      color of the piece that is moved
-     * @return 0 if new location was an empty space,<br>
-     *         1 if opponent piece captured at new location,<br>
-     *        -1 if new location stored invoking player colored piece,<br>
-     *        -2 if new location is off the board.
+     *      color of the moving piece.
      */
-    private int pieceAppend(long oldLoc, long newLoc, Piece.Type type, Piece.Color color) {
-        // check to see if piece move is legal (no piece of same color) and append it whether it has captured
-        // an opponent piece or not. Assumes the locations are valid and checked before function call.
-        if (newLoc != 0) {
-            // avoid the method call if the newLoc extends below or above the board.
-            Piece captured = bitboard.getPiece(newLoc);
-            if (captured != null) {
-                if (color != captured.color) {
-                    possibleMoves.add(oldLoc, newLoc, type, color, captured.type, Piece.Type.NONE); // opponent piece captured
-                    return 1;
-                }
-                return -1;
-            }
-            else {
-                possibleMoves.add(oldLoc, newLoc, type, color, Piece.Type.NONE, Piece.Type.NONE); // empty square
-                return 0;
-            }
+    private void targetsAppend(long from, long targets, Piece.Type type, Piece.Color color) {
+        int colorIndex = color.ordinal();
+        long oppBoard = colorBoards[1 - colorIndex];
+        targets &= ~colorBoards[colorIndex] & checkMask;
+
+        int fromSquare = Long.numberOfTrailingZeros(from);
+        int moved = type.ordinal();
+
+        long quiet = targets & ~oppBoard & quietMask;
+        while (quiet != 0) {
+            long to = quiet & -quiet;
+            append(PackedMove.encode(fromSquare, Long.numberOfTrailingZeros(to), moved, colorIndex,
+                    PackedMove.NO_PIECE, PackedMove.NO_PIECE, 0));
+            quiet ^= to;
         }
-        return -2;
+
+        long captures = targets & oppBoard;
+        while (captures != 0) {
+            long to = captures & -captures;
+            append(PackedMove.encode(fromSquare, Long.numberOfTrailingZeros(to), moved, colorIndex,
+                    capturedType(to), PackedMove.NO_PIECE, 0));
+            captures ^= to;
+        }
+    }
+
+    /**
+     * Writes a packed move to the end of the move buffer.
+     *
+     * @param move
+     *      packed move to add.
+     */
+    private void append(int move) {
+        moveBuffer[moveCount++] = move;
+    }
+
+    /**
+     * Returns the squares a piece may move to without exposing its king,
+     * being the ray of its pin if it is pinned, or every square otherwise.
+     *
+     * @param piece
+     *      masking bit for the location of the piece.
+     * @return allowed destination squares.
+     */
+    private long pinMask(long piece) {
+        return (pinned & piece) != 0 ? pinRays[Long.numberOfTrailingZeros(piece)] : -1L;
+    }
+
+    /**
+     * Finds the type of the opponent piece sitting on the given square, from
+     * the bitboard's mailbox. The caller guarantees the square is occupied by
+     * that color.
+     *
+     * @param mask
+     *      masking bit for the square.
+     * @return type ordinal of the piece.
+     */
+    private int capturedType(long mask) {
+        return bitboard.pieceAt(Long.numberOfTrailingZeros(mask)) & 7;
     }
-}
\ No newline at end of file
+}
@@ -1,82 +1,105 @@
 package com.github.camsmith03;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 /**
- * Fairly simplistic yet straightforward Priority Queue for moves. This class
+ * Fairly simplistic yet straightforward priority queue for moves. This class
  * serves to store the output from the MoveGenerator, and will automatically
- * order the moves based on the comparator from the Move compareTo
- * implementation.
+ * order the moves so captures, promotions and castling are searched first.
+ * The search itself uses the preallocated MoveBuffer instead; this class is
+ * kept for callers outside the search that want a self-contained list.
+ * <br>
+ * Moves are stored in their packed form (see PackedMove) in a binary heap
+ * backed by a plain int array. Each element holds the move's ordering score
+ * (MoveBuffer.orderScore()) above the move bits, so comparing two elements
+ * compares their scores, and no objects are created when moves are added or
+ * removed.
  *
  * @author Cameron Smith
- * @version 08.26.2024
+ * @version 10.18.2026
  */
 public class MoveList {
-    private final PriorityQueue<Move> moveList;
-    private static final int LIST_SIZE = 30;
+    private static final int LIST_SIZE = 32;
+    private static final int MOVE_MASK = (1 << PackedMove.BITS) - 1;
+    private int[] heap = new int[LIST_SIZE];
+    private int size;
 
     /**
-     * Initializes the Priority Queue with the expected comparator.
+     * Adds a packed move to the heap.
+     *
+     * @param move
+     *      packed move (see PackedMove).
      */
-    public MoveList() {
-        Comparator<Move> comparator = Move::compareTo;
-        moveList = new PriorityQueue<>(LIST_SIZE, comparator);
+    public void add(int move) {
+        if (size == heap.length)
+            heap = Arrays.copyOf(heap, size * 2);
+
+        int element = (MoveBuffer.orderScore(move) << PackedMove.BITS) | move;
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= element)
+                break;
+
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = element;
     }
 
     /**
-     * Creates the move from the supplied arguments and passes said move to the
-     * PriorityQueue. Any errors that arise from the parameters will be thrown
-     * from Move's constructor.
+     * Simple way to add a move to the MoveList from a Move object, such as
+     * one built from user input. The move is packed before it is stored.
      *
-     * @param fromMask
-     *      masking bit representing the piece's initial location.
-     * @param toMask
-     *      masking bit representing the piece's final location.
-     * @param pieceType
-     *      type classifier for the piece that was moved.
-     * @param pieceColor
-     *      color classifier for the piece that was moved
-     * @param capturedType
-     *      type classifier for the piece that was captured (or NONE)
-     * @param promotedType
-     *      type classifier for the type the piece promoted to (or NONE)
+     * @param move
+     *      Move to apply to the heap
      */
-    public void add(long fromMask, long toMask, Piece.Type pieceType, Piece.Color pieceColor, Piece.Type capturedType,
-                    Piece.Type promotedType) {
-        moveList.add(new Move(fromMask, toMask, pieceType, pieceColor, capturedType, promotedType));
+    public void addMove(Move move) {
+        add(PackedMove.fromMove(move));
     }
 
     /**
-     * Obtains and returns the first element in the PriorityQueue. This element
-     * is subsequently removed from the PriorityQueue itself.
+     * Obtains and returns the highest priority move in the heap. This element
+     * is subsequently removed from the heap itself.
      *
-     * @return Move
+     * @return packed move, or PackedMove.NONE if the list is empty.
      */
-    public Move pop() {
-        return moveList.poll();
+    public int pop() {
+        if (size == 0)
+            return PackedMove.NONE;
+
+        int top = heap[0];
+        removeAt(0);
+        return top & MOVE_MASK;
     }
 
     /**
-     * Simple way to add a move to the MoveList without providing the raw
-     * arguments, instead opting to provide the object itself. This is useful
-     * for some special case moves (like castling or en passant) that require
-     * field manipulation to accurately be interpreted from the algorithm. Any
-     * move that doesn't fit this category shouldn't be calling this method.
+     * Removes and returns the move matching the encoded transposition table
+     * move, allowing it to be searched ahead of the rest of the list.
      *
-     * @param move
-     *      Move to apply to the PriorityQueue
+     * @param encodedMove
+     *      value from TranspositionTable.bestMove().
+     * @return matching packed move, or PackedMove.NONE if it isn't in the list.
      */
-    public void addMove(Move move) {
-        moveList.add(move);
+    public int extract(int encodedMove) {
+        if (encodedMove == 0)
+            return PackedMove.NONE;
+
+        for (int i = 0; i < size; i++) {
+            int move = heap[i] & MOVE_MASK;
+            if (TranspositionTable.matchesMove(encodedMove, move)) {
+                removeAt(i);
+                return move;
+            }
+        }
+        return PackedMove.NONE;
     }
 
     /**
      * Removes all the elements of the list. Achieves the same result as
      * creating a new object, without the GC overhead.
-     * TODO: implement this into the minimax algorithm.
      */
     public void clearList() {
-        moveList.clear();
+        size = 0;
     }
 
     /**
@@ -84,12 +107,46 @@ public class MoveList {
      *
      * @return true if empty; false otherwise.
      */
-    public boolean isEmpty() { return moveList.isEmpty(); }
+    public boolean isEmpty() { return size == 0; }
 
     /**
-     * Getter for the number of elements currently in the moveList.
+     * Getter for the number of elements currently in the heap.
      *
      * @return number of elements
      */
-    public int size() { return moveList.size(); }
-}
\ No newline at end of file
+    public int size() { return size; }
+
+    /**
+     * Removes the element at the given heap index by moving the last element
+     * into its place and sifting it up or down as needed.
+     */
+    private void removeAt(int i) {
+        int last = heap[--size];
+        if (i == size)
+            return;
+
+        // sift down
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child])
+                child++;
+            if (last >= heap[child])
+                break;
+
+            heap[i] = heap[child];
+            i = child;
+        }
+
+        // sift up (only needed when removing from the middle of the heap)
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= last)
+                break;
+
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = last;
+    }
+}
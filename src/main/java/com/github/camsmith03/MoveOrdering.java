@@ -0,0 +1,142 @@
+package com.github.camsmith03;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Dynamic move ordering for quiet moves, learned from the beta cutoffs of
+ * the search. Captures and promotions can be ordered by what they win, but a
+ * quiet move carries no such hint, so the search remembers which quiet moves
+ * caused cutoffs and tries those first:
+ * <ul>
+ * <li>killer moves: the last two quiet moves that cut off at the same depth
+ * of the tree, which are often good in the sibling positions too.</li>
+ * <li>counter moves: the quiet move that last refuted the opponent's previous
+ * move (indexed by the color, type and destination of that move).</li>
+ * <li>history: a butterfly table (color, from square, to square) adding up
+ * how often and how deep each quiet move has caused a cutoff anywhere in the
+ * tree.</li>
+ * </ul>
+ * </p><p>
+ * Captures and promotions are split by their static exchange evaluation:
+ * the ones that don't lose material come before every quiet move, while
+ * losing ones (such as a queen taking a defended pawn) are left until after
+ * all of them.
+ * </p><p>
+ * Each SearchWorker owns its tables, so no locking is needed. The resulting
+ * ordering is: the hash move, good captures and promotions, the killers, the
+ * counter move, the remaining quiet moves by history, then bad captures.
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class MoveOrdering {
+    private static final int GOOD_CAPTURE_SCORE = 1 << 22;    // above every quiet move
+    private static final int BAD_CAPTURE_SCORE = -(1 << 22);  // below every quiet move
+    private static final int KILLER_SCORE = 1 << 21;   // first killer (the second is one lower)
+    private static final int COUNTER_SCORE = KILLER_SCORE - 2;
+    private static final int HISTORY_LIMIT = 1 << 20;  // the history table is halved once an entry passes this
+    private static final int MAX_DEPTH = 64;
+    private final int[] killers = new int[MAX_DEPTH * 2];    // two slots per depth
+    private final int[] history = new int[2 * 64 * 64];      // [color][from][to]
+    private final int[] counterMoves = new int[2 * 6 * 64];  // [color][moved type][to] of the previous move
+    private final StaticExchange staticExchange;
+
+    /**
+     * Constructor for MoveOrdering.
+     *
+     * @param staticExchange
+     *      exchange evaluator (of the searched board) used to split the
+     *      captures.
+     */
+    public MoveOrdering(StaticExchange staticExchange) {
+        this.staticExchange = staticExchange;
+    }
+
+    /**
+     * Ordering score of a capture or promotion, placing it ahead of the quiet
+     * moves unless the exchange it starts loses material.
+     *
+     * @param move
+     *      packed capture or promotion.
+     * @return ordering score added to the move's static score.
+     */
+    public int captureScore(int move) {
+        return staticExchange.isLosing(move) ? BAD_CAPTURE_SCORE : GOOD_CAPTURE_SCORE;
+    }
+
+    /**
+     * Ordering score of a quiet move, from the killer, counter move and
+     * history tables.
+     *
+     * @param move
+     *      packed quiet move.
+     * @param currDepth
+     *      depth of the node in the tree.
+     * @param previousMove
+     *      move that led to the node (PackedMove.NONE at the root).
+     * @return ordering score (below that of a good capture).
+     */
+    public int score(int move, int currDepth, int previousMove) {
+        if (killers[currDepth * 2] == move)
+            return KILLER_SCORE;
+        if (killers[currDepth * 2 + 1] == move)
+            return KILLER_SCORE - 1;
+        if (previousMove != PackedMove.NONE && counterMoves[counterIndex(previousMove)] == move)
+            return COUNTER_SCORE;
+
+        return history[historyIndex(move)];
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff. The bonus to its
+     * history grows with the square of the remaining depth, since a cutoff
+     * near the root saves far more work than one near the leaves.
+     *
+     * @param move
+     *      packed quiet move that cut off.
+     * @param currDepth
+     *      depth of the node in the tree.
+     * @param depthLeft
+     *      plies that were left to search below the node.
+     * @param previousMove
+     *      move that led to the node (PackedMove.NONE at the root).
+     */
+    public void update(int move, int currDepth, int depthLeft, int previousMove) {
+        int slot = currDepth * 2;
+        if (killers[slot] != move) {
+            killers[slot + 1] = killers[slot];
+            killers[slot] = move;
+        }
+
+        if (previousMove != PackedMove.NONE)
+            counterMoves[counterIndex(previousMove)] = move;
+
+        int index = historyIndex(move);
+        history[index] += depthLeft * depthLeft;
+        if (history[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++)
+                history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Prepares the tables for a new search. Killers are tied to depths
+     * relative to the old root, so they are cleared, while history is only
+     * halved so the knowledge of the previous search carries over.
+     */
+    public void age() {
+        Arrays.fill(killers, PackedMove.NONE);
+        for (int i = 0; i < history.length; i++)
+            history[i] >>= 1;
+    }
+
+    private static int historyIndex(int move) {
+        return (PackedMove.colorIndex(move) << 12) | (move & 0xFFF); // from and to sit in the low 12 bits
+    }
+
+    private static int counterIndex(int previousMove) {
+        return (PackedMove.colorIndex(previousMove) * 6 + PackedMove.moved(previousMove)) * 64
+                + PackedMove.to(previousMove);
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.camsmith03;
+
+/**
+ * <p>
+ * Static helpers for moves packed into a single int, which is how the move
+ * generator, the bitboard and the search pass moves around. Packing a move
+ * means generating one costs no allocation, unlike the Move class, which is
+ * only used at the boundaries (the InputLexer/InputAnalyzer produce Moves, and
+ * the OutputTranslationUnit translates them), converting with fromMove() and
+ * toMove().
+ * </p><p>
+ * Bit layout (low to high):
+ * <pre>
+ *   0-5   from square (0 = a1, 63 = h8)
+ *   6-11  to square
+ *   12-14 moved piece type (Piece.Type ordinal)
+ *   15-17 captured piece type (NO_PIECE if nothing was captured)
+ *   18-20 promoted piece type (NO_PIECE if the move isn't a promotion)
+ *   21    color of the moved piece (Piece.Color ordinal)
+ *   22    en passant flag
+ *   23    castle flag (the side is given by the king's to square)
+ * </pre>
+ * A legal move never has the same from and to square, so 0 is free to mean
+ * "no move" (NONE).
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+    public static final int NO_PIECE = 6; // Piece.Type.NONE.ordinal()
+    public static final int EN_PASSANT = 1 << 22;
+    public static final int CASTLE = 1 << 23;
+    public static final int BITS = 24; // number of bits a move occupies
+
+    private static final Piece.Type[] pieceTypeArr = Piece.Type.values();
+    private static final Piece.Color[] pieceColorArr = Piece.Color.values();
+
+    private PackedMove() {}
+
+    /**
+     * Packs the fields of a move into an int.
+     *
+     * @param from
+     *      index of the source square.
+     * @param to
+     *      index of the destination square.
+     * @param moved
+     *      type ordinal of the moving piece.
+     * @param colorIndex
+     *      color ordinal of the moving piece.
+     * @param captured
+     *      type ordinal of the captured piece (or NO_PIECE).
+     * @param promoted
+     *      type ordinal of the promoted piece (or NO_PIECE).
+     * @param flags
+     *      EN_PASSANT, CASTLE, or 0.
+     * @return packed move.
+     */
+    public static int encode(int from, int to, int moved, int colorIndex, int captured, int promoted, int flags) {
+        return from | (to << 6) | (moved << 12) | (captured << 15) | (promoted << 18) | (colorIndex << 21) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static long fromMask(int move) {
+        return 1L << (move & 0x3F);
+    }
+
+    public static long toMask(int move) {
+        return 1L << ((move >>> 6) & 0x3F);
+    }
+
+    public static int moved(int move) {
+        return (move >>> 12) & 0x7;
+    }
+
+    public static int captured(int move) {
+        return (move >>> 15) & 0x7;
+    }
+
+    public static int promoted(int move) {
+        return (move >>> 18) & 0x7;
+    }
+
+    public static int colorIndex(int move) {
+        return (move >>> 21) & 0x1;
+    }
+
+    public static boolean isCapture(int move) {
+        return captured(move) != NO_PIECE;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promoted(move) != NO_PIECE;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * Returns the square of the pawn removed by an en passant capture, being
+     * the square directly behind the destination from the mover's side.
+     *
+     * @param move
+     *      packed en passant move.
+     * @return index of the captured pawn's square.
+     */
+    public static int enPassantSquare(int move) {
+        return colorIndex(move) == 0 ? to(move) - 8 : to(move) + 8;
+    }
+
+    /**
+     * Converts a Move (typically from the InputAnalyzer) into its packed form.
+     *
+     * @param move
+     *      Move to convert.
+     * @return packed move.
+     */
+    public static int fromMove(Move move) {
+        int flags = 0;
+        if (move.getEnPassant() != 0)
+            flags |= EN_PASSANT;
+        if (move.getCastledRook() != Move.CastleSide.NONE)
+            flags |= CASTLE;
+
+        return encode(Long.numberOfTrailingZeros(move.getFromMask()), Long.numberOfTrailingZeros(move.getToMask()),
+                move.getMovedPieceType().ordinal(), move.getMovedPieceColor().ordinal(),
+                move.getCapturedPieceType().ordinal(), move.getPromotedType().ordinal(), flags);
+    }
+
+    /**
+     * Converts a packed move back into a Move, typically so it can be handed
+     * to the OutputTranslationUnit.
+     *
+     * @param move
+     *      packed move (must not be NONE).
+     * @return equivalent Move.
+     */
+    public static Move toMove(int move) {
+        if (move == NONE)
+            throw new IllegalArgumentException("Cannot convert an empty move");
+
+        Move converted = new Move(fromMask(move), toMask(move), pieceTypeArr[moved(move)],
+                pieceColorArr[colorIndex(move)], pieceTypeArr[captured(move)], pieceTypeArr[promoted(move)]);
+
+        if (isCastle(move))
+            converted.setCastledRook(to(move) > from(move) ? Move.CastleSide.KING_SIDE : Move.CastleSide.QUEEN_SIDE);
+        if (isEnPassant(move))
+            converted.setEnPassant(1L << enPassantSquare(move));
+
+        return converted;
+    }
+}
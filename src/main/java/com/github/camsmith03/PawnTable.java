@@ -0,0 +1,66 @@
+package com.github.camsmith03;
+
+/**
+ * <p>
+ * Fixed size hash table caching the pawn structure evaluation, indexed by the
+ * pawn-only Zobrist key (see Bitboard.getPawnKey()). Most moves don't move or
+ * capture a pawn, so the pawns of the positions in a search repeat far more
+ * often than the positions themselves, and nearly every lookup hits.
+ * </p><p>
+ * Entries are kept in two parallel arrays (the key and the packed score), so
+ * the table never allocates after construction. Each Evaluator owns its
+ * table, so no locking is needed. An empty slot holds key 0 with a score of
+ * 0, which is also the correct score for the (key 0) position without any
+ * pawns.
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class PawnTable {
+    public static final int MISS = Integer.MIN_VALUE; // never a real packed score
+    private final long[] keys;
+    private final int[] scores;
+    private final int indexMask;
+
+    /**
+     * Allocates a table with the given number of entries.
+     *
+     * @param entries
+     *      number of entries (a power of two).
+     */
+    public PawnTable(int entries) {
+        if (entries < 1 || Integer.bitCount(entries) != 1)
+            throw new IllegalArgumentException("Pawn table entries must be a power of two");
+
+        keys = new long[entries];
+        scores = new int[entries];
+        indexMask = entries - 1;
+    }
+
+    /**
+     * Looks up the score stored for the given pawn key.
+     *
+     * @param key
+     *      pawn key of the position.
+     * @return packed score, or MISS if the pawn structure isn't stored.
+     */
+    public int probe(long key) {
+        int index = (int) key & indexMask;
+        return keys[index] == key ? scores[index] : MISS;
+    }
+
+    /**
+     * Stores the score of a pawn structure, replacing whatever held its slot.
+     *
+     * @param key
+     *      pawn key of the position.
+     * @param score
+     *      packed pawn structure score.
+     */
+    public void store(long key, int score) {
+        int index = (int) key & indexMask;
+        keys[index] = key;
+        scores[index] = score;
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.camsmith03;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Performance test (perft): walks the tree of legal moves from a position to
+ * a fixed depth and counts the leaf nodes. The counts for well known
+ * positions are published, so any difference points straight at a move
+ * generation (or make/unmake) bug, and since nothing but the MoveGenerator
+ * and Bitboard is involved, the time taken measures their raw throughput
+ * without the search in the way.
+ * </p><p>
+ * At the last ply, the legal moves are only counted, not made (bulk
+ * counting), as the generator only produces legal moves. Divide splits the
+ * count by root move, which narrows a wrong count down to the move that
+ * causes it when compared against another engine.
+ * </p>
+ * Usage: java Perft depth [divide] [fen] (from the starting position when no
+ * FEN is given)
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class Perft {
+    public static final int MAX_DEPTH = 16;
+    private static final String PROMOTION_LETTERS = "nbrq"; // indexed by promoted type - 1
+    private final Bitboard bitboard;
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final int[][] moveStack = new int[MAX_DEPTH][MoveBuffer.MAX_MOVES]; // moves of each ply, reused
+
+    /**
+     * Constructor for Perft, counting from the bitboard's current position.
+     *
+     * @param bitboard
+     *      board to walk (left unchanged once each count is done).
+     */
+    public Perft(Bitboard bitboard) {
+        this.bitboard = bitboard;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java Perft depth [divide] [fen]");
+            System.exit(1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = args.length > 1 && args[1].equals("divide");
+        int fenStart = divide ? 2 : 1;
+        String fen = args.length > fenStart ? String.join(" ", Arrays.copyOfRange(args, fenStart, args.length))
+                                            : Fen.START_POSITION;
+        BoardController boardController = new BoardController(fen);
+        Perft perft = new Perft(boardController.getBitboard());
+        Piece.Color turnToMove = boardController.getTurn();
+
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            Map<String, Long> counts = perft.divide(turnToMove, depth);
+            counts.forEach((move, count) -> System.out.println(move + ": " + count));
+            nodes = counts.values().stream().mapToLong(Long::longValue).sum();
+            System.out.println();
+        }
+        else {
+            nodes = perft.count(turnToMove, depth);
+        }
+        long micros = Math.max(1, (System.nanoTime() - start) / 1000);
+
+        System.out.printf("depth %d: %d nodes in %d ms (%d nodes/sec)%n", depth, nodes, micros / 1000,
+                nodes * 1_000_000 / micros);
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree to the given depth.
+     *
+     * @param turnToMove
+     *      color to move in the current position.
+     * @param depth
+     *      plies to walk (0 to MAX_DEPTH).
+     * @return number of leaf nodes (1 at depth 0).
+     */
+    public long count(Piece.Color turnToMove, int depth) {
+        checkDepth(depth);
+        return depth == 0 ? 1 : perft(turnToMove, depth, 0);
+    }
+
+    /**
+     * Counts the leaf nodes below each root move separately.
+     *
+     * @param turnToMove
+     *      color to move in the current position.
+     * @param depth
+     *      plies to walk, including the root move (1 to MAX_DEPTH).
+     * @return count for each root move in coordinate notation (e.g. "e2e4",
+     *      "e7e8q"), in generation order.
+     */
+    public Map<String, Long> divide(Piece.Color turnToMove, int depth) {
+        checkDepth(depth);
+        if (depth == 0)
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        int[] moves = moveStack[0];
+        int size = moveGenerator.generateMoves(bitboard, turnToMove, moves);
+        for (int i = 0; i < size; i++) {
+            int move = moves[i];
+            long nodes = 1;
+            if (depth > 1) {
+                bitboard.makeMove(move);
+                nodes = perft(opposite(turnToMove), depth - 1, 1);
+                bitboard.unmakeMove(move);
+            }
+            counts.put(coordinates(move), nodes);
+        }
+        return counts;
+    }
+
+    /**
+     * Recursive walk of the tree, with bulk counting at the last ply.
+     *
+     * @param turnToMove
+     *      color to move.
+     * @param depth
+     *      plies left to walk (at least 1).
+     * @param ply
+     *      distance from the root, indexing the move stack.
+     * @return number of leaf nodes.
+     */
+    private long perft(Piece.Color turnToMove, int depth, int ply) {
+        int[] moves = moveStack[ply];
+        int size = moveGenerator.generateMoves(bitboard, turnToMove, moves);
+        if (depth == 1)
+            return size;
+
+        long nodes = 0;
+        Piece.Color opponent = opposite(turnToMove);
+        for (int i = 0; i < size; i++) {
+            bitboard.makeMove(moves[i]);
+            nodes += perft(opponent, depth - 1, ply + 1);
+            bitboard.unmakeMove(moves[i]);
+        }
+        return nodes;
+    }
+
+    /**
+     * Writes a move in coordinate notation: the from and to squares, plus
+     * the promoted piece's letter.
+     *
+     * @param move
+     *      packed move.
+     * @return move text, such as "e1g1" for white castling king side.
+     */
+    public static String coordinates(int move) {
+        String text = square(PackedMove.from(move)) + square(PackedMove.to(move));
+        if (PackedMove.isPromotion(move))
+            text += PROMOTION_LETTERS.charAt(PackedMove.promoted(move) - 1);
+
+        return text;
+    }
+
+    private static String square(int square) {
+        return "" + (char) ('a' + (square & 7)) + (char) ('1' + (square >>> 3));
+    }
+
+    private static Piece.Color opposite(Piece.Color color) {
+        return color == Piece.Color.WHITE ? Piece.Color.BLACK : Piece.Color.WHITE;
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 0 || depth > MAX_DEPTH)
+            throw new IllegalArgumentException("Perft depth must be between 0 and " + MAX_DEPTH);
+    }
+}
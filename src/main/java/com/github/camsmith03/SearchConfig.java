@@ -0,0 +1,357 @@
+package com.github.camsmith03;
+
+/**
+ * Holds the tunable settings for the search. Defaults are chosen to be
+ * reasonable on a typical machine, and each setting can be overridden at
+ * launch through a system property (e.g. -Dminimax.hash=256) so no rebuild is
+ * needed to experiment with them.
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class SearchConfig {
+    private static final int DEFAULT_HASH_MB = 64;
+    private static final int DEFAULT_EVAL_CACHE_MB = 1;
+    private static final long DEFAULT_MOVE_TIME_MILLIS = 3000;
+    private static final int MAX_THREADS = 256;
+    private static final double DEFAULT_LMR_BASE = 0.75;
+    private static final double DEFAULT_LMR_DIVISOR = 2.25;
+    private static final String DEFAULT_LMP_MOVE_COUNTS = "5,8,13";
+    private static final int DEFAULT_ASPIRATION_DELTA = 25;
+    private static final double DEFAULT_ASPIRATION_GROWTH = 2.0;
+
+    private int hashSizeMb = DEFAULT_HASH_MB;
+    private int evalCacheMb = DEFAULT_EVAL_CACHE_MB;
+    private long moveTimeMillis = DEFAULT_MOVE_TIME_MILLIS;
+    private int threads = 1;
+    private boolean nullMovePruning = true;
+    private boolean lateMoveReductions = true;
+    private boolean lateMovePruning = true;
+    private int[] lmpMoveCounts = parseMoveCounts(DEFAULT_LMP_MOVE_COUNTS);
+    private double lmrBase = DEFAULT_LMR_BASE;
+    private double lmrDivisor = DEFAULT_LMR_DIVISOR;
+    private int aspirationDelta = DEFAULT_ASPIRATION_DELTA;
+    private double aspirationGrowth = DEFAULT_ASPIRATION_GROWTH;
+    private boolean reportIterations = true;
+
+    /**
+     * Creates a configuration holding the default values.
+     */
+    public SearchConfig() {}
+
+    /**
+     * Creates a configuration from the default values, overridden by any of
+     * the following system properties that are set:
+     * <ul>
+     * <li>minimax.hash: transposition table size in MB</li>
+     * <li>minimax.evalcache: evaluation cache size in MB (0 disables it)</li>
+     * <li>minimax.movetime: time given to each move in milliseconds</li>
+     * <li>minimax.threads: number of search threads (Lazy SMP)</li>
+     * <li>minimax.nullmove: whether null move pruning is used (true/false)</li>
+     * <li>minimax.lmr: whether late move reductions are used (true/false)</li>
+     * <li>minimax.lmr.base, minimax.lmr.divisor: shape of the reduction
+     * table (see setLmrTable())</li>
+     * <li>minimax.lmp: whether late move pruning is used (true/false)</li>
+     * <li>minimax.lmp.counts: quiet moves searched before late move pruning,
+     * comma separated from depth 1 (see setLmpMoveCounts())</li>
+     * <li>minimax.aspiration.delta, minimax.aspiration.growth: initial
+     * aspiration window and how fast it widens (see setAspirationWindow())</li>
+     * <li>minimax.info: whether each iteration is reported (true/false)</li>
+     * </ul>
+     *
+     * @return SearchConfig
+     */
+    public static SearchConfig fromSystemProperties() {
+        SearchConfig config = new SearchConfig();
+        config.setHashSizeMb(Integer.getInteger("minimax.hash", DEFAULT_HASH_MB));
+        config.setEvalCacheMb(Integer.getInteger("minimax.evalcache", DEFAULT_EVAL_CACHE_MB));
+        config.setMoveTimeMillis(Long.getLong("minimax.movetime", DEFAULT_MOVE_TIME_MILLIS));
+        config.setThreads(Integer.getInteger("minimax.threads", 1));
+        config.setNullMovePruning(Boolean.parseBoolean(System.getProperty("minimax.nullmove", "true")));
+        config.setLateMoveReductions(Boolean.parseBoolean(System.getProperty("minimax.lmr", "true")));
+        config.setLmrTable(Double.parseDouble(System.getProperty("minimax.lmr.base", "" + DEFAULT_LMR_BASE)),
+                Double.parseDouble(System.getProperty("minimax.lmr.divisor", "" + DEFAULT_LMR_DIVISOR)));
+        config.setLateMovePruning(Boolean.parseBoolean(System.getProperty("minimax.lmp", "true")));
+        config.setLmpMoveCounts(parseMoveCounts(System.getProperty("minimax.lmp.counts", DEFAULT_LMP_MOVE_COUNTS)));
+        config.setAspirationWindow(Integer.getInteger("minimax.aspiration.delta", DEFAULT_ASPIRATION_DELTA),
+                Double.parseDouble(System.getProperty("minimax.aspiration.growth", "" + DEFAULT_ASPIRATION_GROWTH)));
+        config.setReportIterations(Boolean.parseBoolean(System.getProperty("minimax.info", "true")));
+        return config;
+    }
+
+    /**
+     * Getter for the transposition table size.
+     *
+     * @return size in megabytes.
+     */
+    public int getHashSizeMb() {
+        return hashSizeMb;
+    }
+
+    /**
+     * Setter for the transposition table size.
+     *
+     * @param hashSizeMb
+     *      size in megabytes (at least 1).
+     */
+    public void setHashSizeMb(int hashSizeMb) {
+        if (hashSizeMb < 1)
+            throw new IllegalArgumentException("Hash size must be at least 1 MB");
+
+        this.hashSizeMb = hashSizeMb;
+    }
+
+    /**
+     * Getter for the evaluation cache size.
+     *
+     * @return size in megabytes (0 if the cache is disabled).
+     */
+    public int getEvalCacheMb() {
+        return evalCacheMb;
+    }
+
+    /**
+     * Setter for the evaluation cache size, see EvalCache.
+     *
+     * @param evalCacheMb
+     *      size in megabytes (0 to disable the cache).
+     */
+    public void setEvalCacheMb(int evalCacheMb) {
+        if (evalCacheMb < 0)
+            throw new IllegalArgumentException("Evaluation cache size must be at least 0 MB");
+
+        this.evalCacheMb = evalCacheMb;
+    }
+
+    /**
+     * Getter for the time given to each move by Minimax.minimax().
+     *
+     * @return move time in milliseconds.
+     */
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    /**
+     * Setter for the time given to each move by Minimax.minimax().
+     *
+     * @param moveTimeMillis
+     *      move time in milliseconds (at least 1).
+     */
+    public void setMoveTimeMillis(long moveTimeMillis) {
+        if (moveTimeMillis < 1)
+            throw new IllegalArgumentException("Move time must be at least 1 ms");
+
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    /**
+     * Getter for the number of threads searching each position.
+     *
+     * @return thread count (1 for a single-threaded search).
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Setter for the number of threads searching each position. Every thread
+     * past the first runs a helper search sharing the transposition table.
+     *
+     * @param threads
+     *      thread count (1 to MAX_THREADS).
+     */
+    public void setThreads(int threads) {
+        if (threads < 1 || threads > MAX_THREADS)
+            throw new IllegalArgumentException("Thread count must be between 1 and " + MAX_THREADS);
+
+        this.threads = threads;
+    }
+
+    /**
+     * Getter for whether the search uses null move pruning.
+     *
+     * @return true if enabled; false otherwise.
+     */
+    public boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
+
+    /**
+     * Setter for whether the search uses null move pruning. Mostly useful to
+     * measure what the pruning saves.
+     *
+     * @param nullMovePruning
+     *      true to enable null move pruning.
+     */
+    public void setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+    }
+
+    /**
+     * Getter for whether the search uses late move reductions.
+     *
+     * @return true if enabled; false otherwise.
+     */
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * Setter for whether the search uses late move reductions.
+     *
+     * @param lateMoveReductions
+     *      true to enable late move reductions.
+     */
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    /**
+     * Getter for the constant part of the reduction table.
+     *
+     * @return base reduction.
+     */
+    public double getLmrBase() {
+        return lmrBase;
+    }
+
+    /**
+     * Getter for how slowly the reduction table grows.
+     *
+     * @return divisor.
+     */
+    public double getLmrDivisor() {
+        return lmrDivisor;
+    }
+
+    /**
+     * Sets the shape of the late move reduction table, where a move is
+     * reduced by base + ln(depth) * ln(move index) / divisor plies (rounded
+     * down).
+     *
+     * @param base
+     *      reduction added to every entry (at least 0).
+     * @param divisor
+     *      how slowly the reduction grows (greater than 0).
+     */
+    public void setLmrTable(double base, double divisor) {
+        if (base < 0 || divisor <= 0)
+            throw new IllegalArgumentException("Reduction base must be at least 0, and the divisor greater than 0");
+
+        this.lmrBase = base;
+        this.lmrDivisor = divisor;
+    }
+
+    /**
+     * Getter for whether the search uses late move pruning.
+     *
+     * @return true if enabled; false otherwise.
+     */
+    public boolean isLateMovePruning() {
+        return lateMovePruning;
+    }
+
+    /**
+     * Setter for whether the search uses late move pruning.
+     *
+     * @param lateMovePruning
+     *      true to enable late move pruning.
+     */
+    public void setLateMovePruning(boolean lateMovePruning) {
+        this.lateMovePruning = lateMovePruning;
+    }
+
+    /**
+     * Getter for the late move pruning thresholds.
+     *
+     * @return quiet moves searched before pruning, indexed by depth - 1.
+     */
+    public int[] getLmpMoveCounts() {
+        return lmpMoveCounts.clone();
+    }
+
+    /**
+     * Sets how many quiet moves are searched at a node before the rest are
+     * pruned, for each depth from 1 up. Deeper nodes than the thresholds
+     * given are never pruned.
+     *
+     * @param counts
+     *      quiet moves searched at depth 1, 2, ... (each at least 1).
+     */
+    public void setLmpMoveCounts(int... counts) {
+        for (int count : counts) {
+            if (count < 1)
+                throw new IllegalArgumentException("Late move pruning counts must be at least 1");
+        }
+
+        this.lmpMoveCounts = counts.clone();
+    }
+
+    /**
+     * Getter for the initial aspiration window.
+     *
+     * @return distance of each bound from the previous score (0 if
+     *      aspiration windows are disabled).
+     */
+    public int getAspirationDelta() {
+        return aspirationDelta;
+    }
+
+    /**
+     * Getter for how fast the aspiration window widens.
+     *
+     * @return factor applied to the window after each failed search.
+     */
+    public double getAspirationGrowth() {
+        return aspirationGrowth;
+    }
+
+    /**
+     * Sets the aspiration window each iteration starts with: the previous
+     * iteration's score plus or minus delta. When the score falls outside
+     * it, the failing side of the window is widened by the growth factor and
+     * the iteration is searched again.
+     *
+     * @param delta
+     *      initial distance of each bound from the previous score (0 to
+     *      always search with the full window).
+     * @param growth
+     *      factor the window grows by after each failure (greater than 1).
+     */
+    public void setAspirationWindow(int delta, double growth) {
+        if (delta < 0 || growth <= 1)
+            throw new IllegalArgumentException("Aspiration delta must be at least 0, and the growth greater than 1");
+
+        this.aspirationDelta = delta;
+        this.aspirationGrowth = growth;
+    }
+
+    /**
+     * Getter for whether each completed iteration is printed.
+     *
+     * @return true if iterations are reported; false otherwise.
+     */
+    public boolean isReportIterations() {
+        return reportIterations;
+    }
+
+    /**
+     * Setter for whether each completed iteration is printed.
+     *
+     * @param reportIterations
+     *      true to print a line per iteration.
+     */
+    public void setReportIterations(boolean reportIterations) {
+        this.reportIterations = reportIterations;
+    }
+
+    private static int[] parseMoveCounts(String counts) {
+        String[] fields = counts.split(",");
+        int[] parsed = new int[fields.length];
+        for (int i = 0; i < fields.length; i++)
+            parsed[i] = Integer.parseInt(fields[i].trim());
+
+        return parsed;
+    }
+}
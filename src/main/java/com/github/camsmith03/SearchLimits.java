@@ -0,0 +1,107 @@
+package com.github.camsmith03;
+
+/**
+ * Limits for a single search, deciding how deep Minimax may iterate and how
+ * long it may take. The time can be given either as a fixed time for the
+ * move, or as the clock remaining (plus the increment gained per move), from
+ * which a share of the remaining time is budgeted. With no time limit set,
+ * the search runs until the maximum depth is completed.
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class SearchLimits {
+    public static final int MAX_DEPTH = 32;
+    private static final int MOVES_TO_GO = 30; // moves the remaining clock is assumed to cover
+    private static final long CLOCK_RESERVE_MILLIS = 50; // never budget the last of the clock (output, GC, etc.)
+
+    private int maxDepth = MAX_DEPTH;
+    private long moveTimeMillis;
+    private long remainingMillis;
+    private long incrementMillis;
+
+    /**
+     * Creates limits with no time limit, searching to MAX_DEPTH.
+     */
+    public SearchLimits() {}
+
+    /**
+     * Getter for the maximum depth.
+     *
+     * @return deepest iteration to search.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Setter for the maximum depth.
+     *
+     * @param maxDepth
+     *      deepest iteration to search (1 to MAX_DEPTH).
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH)
+            throw new IllegalArgumentException("Max depth must be between 1 and " + MAX_DEPTH);
+
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Sets a fixed time to spend on the move, which takes priority over the
+     * clock.
+     *
+     * @param moveTimeMillis
+     *      time for the move in milliseconds (0 to clear).
+     */
+    public void setMoveTime(long moveTimeMillis) {
+        if (moveTimeMillis < 0)
+            throw new IllegalArgumentException("Move time cannot be negative");
+
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    /**
+     * Sets the clock of the side to move, used to budget the time when no
+     * fixed move time is set.
+     *
+     * @param remainingMillis
+     *      time left on the clock in milliseconds.
+     * @param incrementMillis
+     *      time added to the clock after each move in milliseconds.
+     */
+    public void setClock(long remainingMillis, long incrementMillis) {
+        if (remainingMillis < 0 || incrementMillis < 0)
+            throw new IllegalArgumentException("Clock times cannot be negative");
+
+        this.remainingMillis = remainingMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    /**
+     * Determines whether the search is limited by time at all.
+     *
+     * @return true if a move time or clock was set; false otherwise.
+     */
+    public boolean isTimed() {
+        return moveTimeMillis > 0 || remainingMillis > 0;
+    }
+
+    /**
+     * Time the search may take. A fixed move time is used as given. From a
+     * clock, an even share of the remaining time over MOVES_TO_GO moves is
+     * taken, plus most of the increment, while keeping a small reserve so the
+     * clock never runs out.
+     *
+     * @return budget in milliseconds (Long.MAX_VALUE if untimed).
+     */
+    public long budgetMillis() {
+        if (moveTimeMillis > 0)
+            return moveTimeMillis;
+        if (remainingMillis == 0)
+            return Long.MAX_VALUE;
+
+        long budget = remainingMillis / MOVES_TO_GO + incrementMillis * 3 / 4;
+        return Math.max(1, Math.min(budget, remainingMillis - CLOCK_RESERVE_MILLIS));
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.camsmith03;
+
+/**
+ * Counters collected during a single call to Minimax (or by one of its
+ * SearchWorkers). These are purely
+ * informational, and exist so the effect of search changes (such as node
+ * reductions from the transposition table) can be measured instead of
+ * guessed.
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class SearchStats {
+    long nodes;
+    long qNodes; // nodes searched by quiescence (included in nodes)
+    long ttProbes;
+    long ttHits;
+    long ttCutoffs;
+    long cutoffs; // beta cutoffs in the main search
+    long firstMoveCutoffs; // beta cutoffs caused by the first move searched
+    long nullMoveCutoffs; // nodes cut off by null move pruning
+    long lateMovesPruned; // moves skipped by late move pruning
+    long reSearches; // reduced moves searched again at full depth
+    long losingCapturesPruned; // quiescence captures skipped by static exchange evaluation
+    long aspirationFailLows; // root searches repeated after the score fell below the aspiration window
+    long aspirationFailHighs; // root searches repeated after the score rose above the aspiration window
+    long pawnProbes; // pawn structure lookups in the evaluator's pawn table
+    long pawnHits;
+    long evalProbes; // static evaluations looked up in the evaluation cache
+    long evalHits;
+    int depth; // deepest iteration completed
+    private long startTime = System.nanoTime();
+
+    /**
+     * Zeroes every counter, done at the start of each search.
+     */
+    public void reset() {
+        nodes = 0;
+        qNodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        ttCutoffs = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        nullMoveCutoffs = 0;
+        lateMovesPruned = 0;
+        reSearches = 0;
+        losingCapturesPruned = 0;
+        aspirationFailLows = 0;
+        aspirationFailHighs = 0;
+        pawnProbes = 0;
+        pawnHits = 0;
+        evalProbes = 0;
+        evalHits = 0;
+        depth = 0;
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Adds the counters of another search (such as a helper thread's) to
+     * these ones.
+     *
+     * @param other
+     *      statistics to add.
+     */
+    void add(SearchStats other) {
+        nodes += other.nodes;
+        qNodes += other.qNodes;
+        ttProbes += other.ttProbes;
+        ttHits += other.ttHits;
+        ttCutoffs += other.ttCutoffs;
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        nullMoveCutoffs += other.nullMoveCutoffs;
+        lateMovesPruned += other.lateMovesPruned;
+        reSearches += other.reSearches;
+        losingCapturesPruned += other.losingCapturesPruned;
+        aspirationFailLows += other.aspirationFailLows;
+        aspirationFailHighs += other.aspirationFailHighs;
+        pawnProbes += other.pawnProbes;
+        pawnHits += other.pawnHits;
+        evalProbes += other.evalProbes;
+        evalHits += other.evalHits;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Depth of the last iteration the search completed.
+     *
+     * @return depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getQNodes() {
+        return qNodes;
+    }
+
+    /**
+     * Percentage of transposition table probes that found their position.
+     *
+     * @return hit rate (0 if no probes were made).
+     */
+    public double getTtHitRate() {
+        return ttProbes == 0 ? 0 : 100.0 * ttHits / ttProbes;
+    }
+
+    /**
+     * Number of nodes whose search was skipped entirely because the stored
+     * bound was enough to decide the result.
+     *
+     * @return ttCutoffs
+     */
+    public long getTtCutoffs() {
+        return ttCutoffs;
+    }
+
+    /**
+     * Number of nodes cut off by null move pruning.
+     *
+     * @return nullMoveCutoffs
+     */
+    public long getNullMoveCutoffs() {
+        return nullMoveCutoffs;
+    }
+
+    /**
+     * Number of late quiet moves skipped without being searched.
+     *
+     * @return lateMovesPruned
+     */
+    public long getLateMovesPruned() {
+        return lateMovesPruned;
+    }
+
+    /**
+     * Number of reduced moves that beat alpha and had to be searched again at
+     * full depth. A high count means the reductions are too aggressive.
+     *
+     * @return reSearches
+     */
+    public long getReSearches() {
+        return reSearches;
+    }
+
+    /**
+     * Number of captures the quiescence search skipped because they lose
+     * material.
+     *
+     * @return losingCapturesPruned
+     */
+    public long getLosingCapturesPruned() {
+        return losingCapturesPruned;
+    }
+
+    /**
+     * Number of root searches repeated with a wider window because the score
+     * fell below the aspiration window.
+     *
+     * @return aspirationFailLows
+     */
+    public long getAspirationFailLows() {
+        return aspirationFailLows;
+    }
+
+    /**
+     * Number of root searches repeated with a wider window because the score
+     * rose above the aspiration window.
+     *
+     * @return aspirationFailHighs
+     */
+    public long getAspirationFailHighs() {
+        return aspirationFailHighs;
+    }
+
+    /**
+     * Percentage of pawn structure evaluations found in the pawn table
+     * instead of being computed.
+     *
+     * @return hit rate (0 if no probes were made).
+     */
+    public double getPawnHitRate() {
+        return pawnProbes == 0 ? 0 : 100.0 * pawnHits / pawnProbes;
+    }
+
+    /**
+     * Percentage of static evaluations found in the evaluation cache instead
+     * of being computed.
+     *
+     * @return hit rate (0 if no probes were made).
+     */
+    public double getEvalHitRate() {
+        return evalProbes == 0 ? 0 : 100.0 * evalHits / evalProbes;
+    }
+
+    /**
+     * Percentage of beta cutoffs that came from the first move searched,
+     * which measures how good the move ordering is (100% would be perfect
+     * ordering).
+     *
+     * @return first move cutoff rate (0 if there were no cutoffs).
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : 100.0 * firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Milliseconds elapsed since the last reset.
+     *
+     * @return elapsed time.
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        long millis = Math.max(1, getElapsedMillis());
+        return String.format("depth %d, nodes %d (%d knps, %d quiescence), tt hits %.1f%% (%d cutoffs), "
+                + "first move cutoffs %.1f%%, null move cutoffs %d, late moves pruned %d, re-searches %d, "
+                + "losing captures pruned %d, aspiration fails %d low %d high, pawn hash hits %.1f%%, "
+                + "eval cache hits %.1f%%, time %d ms", depth, nodes, nodes / millis, qNodes, getTtHitRate(),
+                ttCutoffs, getFirstMoveCutoffRate(), nullMoveCutoffs, lateMovesPruned, reSearches,
+                losingCapturesPruned, aspirationFailLows, aspirationFailHighs, getPawnHitRate(), getEvalHitRate(),
+                millis);
+    }
+}
@@ -0,0 +1,797 @@
+package com.github.camsmith03;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * A single searcher of the position, holding everything a search thread
+ * mutates: its BoardController, Evaluator, per-ply move buffers, move
+ * ordering tables and statistics. Only the transposition table is shared between workers.
+ * </p><p>
+ * Minimax searches with its main worker on the calling thread, and when more
+ * threads are configured, runs helper workers alongside it (Lazy SMP). The
+ * helpers search the same position on their own copy of the board and never
+ * report a result. They only fill the shared transposition table, which the
+ * main worker then finds its cutoffs and move ordering in. Helpers start
+ * their iterations at staggered depths, so they don't all search the same
+ * tree in the same order.
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class SearchWorker implements Runnable {
+    private static final int STACK_SIZE = 64; // deepest currDepth the search stack can hold
+    private static final int MATE_SCORE = 1_000_000; // far outside the range of any static evaluation
+    private static final int MATE_BOUND = MATE_SCORE - STACK_SIZE; // every mate score within the stack is beyond this
+    private static final int INFINITY = MATE_SCORE + 1; // bound no score reaches, safe to negate
+    private static final int DELTA_MARGIN = 200; // positional swing allowed on top of a capture for delta pruning
+    private static final int TIME_CHECK_INTERVAL = 1024; // nodes between clock checks (must be a power of two)
+    private static final int NULL_MOVE_MIN_DEPTH = 3; // shallower nodes gain too little from a reduced search
+    private static final int LMR_MIN_DEPTH = 3; // plies left needed before late moves are reduced
+    private static final int LMR_FULL_MOVES = 3; // moves searched at full depth before reductions start
+    private static final int MAX_TABLE_INDEX = 63; // last depth and move index in the reduction table
+    private static final int ASPIRATION_MIN_DEPTH = 4; // shallower iterations are too cheap (and unstable) to narrow
+    private final BoardController boardController;
+    private final Evaluator evaluator;
+    private final TranspositionTable transpositionTable;
+    private final EvalCache evalCache; // null if disabled
+    private final AtomicBoolean stopSignal; // shared by every worker of a Minimax, set when the search is over
+    private final boolean nullMovePruning;
+    private final boolean lateMoveReductions;
+    private final boolean lateMovePruning;
+    private final int[] lmpMoveCounts; // quiet moves searched before pruning, [depth - 1]
+    private final int aspirationDelta; // 0 when aspiration windows are disabled
+    private final double aspirationGrowth;
+    private final int[][] reductions; // plies to reduce, [depth][move index]
+    private final SearchStats stats = new SearchStats();
+    private final MoveBuffer[] searchStack = new MoveBuffer[STACK_SIZE]; // move buffer for each depth, reused
+    private final int[] moveStack = new int[STACK_SIZE]; // move being searched at each depth
+    private final StaticExchange staticExchange;
+    private final MoveOrdering ordering;
+    private final int[][] pvTable = new int[STACK_SIZE][STACK_SIZE]; // triangular: line found below each depth
+    private final int[] pvLength = new int[STACK_SIZE]; // end (exclusive) of the line in pvTable at each depth
+    private final int[] principalVariation = new int[STACK_SIZE]; // line of the last completed iteration
+    private int pvSize;
+    private int ply; // depth of the current iteration
+    private int startDepth = 1; // first iteration searched by run()
+    private int maxDepth = SearchLimits.MAX_DEPTH; // last iteration searched by run()
+    private int bestMove; // best packed move of the last completed iteration
+    private int rootScore; // score of bestMove
+    private long deadline; // System.nanoTime() value at which the search stops
+    private boolean stopped; // set once the search has to stop, unwinding the current iteration
+
+    /**
+     * Constructor for a SearchWorker.
+     *
+     * @param boardController
+     *      board searched by this worker (and no other).
+     * @param transpositionTable
+     *      table shared by every worker.
+     * @param evalCache
+     *      evaluation cache shared by every worker (null to evaluate every
+     *      leaf).
+     * @param stopSignal
+     *      flag shared by every worker, set once the search is over.
+     * @param config
+     *      SearchConfig deciding which search features are enabled.
+     */
+    public SearchWorker(BoardController boardController, TranspositionTable transpositionTable, EvalCache evalCache,
+                        AtomicBoolean stopSignal, SearchConfig config) {
+        this.boardController = boardController;
+        nullMovePruning = config.isNullMovePruning();
+        lateMoveReductions = config.isLateMoveReductions();
+        lateMovePruning = config.isLateMovePruning();
+        lmpMoveCounts = config.getLmpMoveCounts();
+        aspirationDelta = config.getAspirationDelta();
+        aspirationGrowth = config.getAspirationGrowth();
+        reductions = buildReductionTable(config.getLmrBase(), config.getLmrDivisor());
+        this.transpositionTable = transpositionTable;
+        this.evalCache = evalCache;
+        this.stopSignal = stopSignal;
+        evaluator = new Evaluator(boardController.getBitboard(), stats);
+        staticExchange = new StaticExchange(boardController.getBitboard());
+        ordering = new MoveOrdering(staticExchange);
+        for (int i = 0; i < STACK_SIZE; i++)
+            searchStack[i] = new MoveBuffer();
+    }
+
+    /**
+     * Builds the late move reduction table: base + ln(depth) * ln(move index)
+     * / divisor, rounded down. Logarithms keep the reduction growing slowly,
+     * so even very late moves at high depths are still searched a few plies
+     * deep.
+     *
+     * @param base
+     *      reduction added to every entry.
+     * @param divisor
+     *      how slowly the reduction grows (larger means smaller reductions).
+     * @return table indexed by [depth][move index].
+     */
+    private static int[][] buildReductionTable(double base, double divisor) {
+        int[][] table = new int[MAX_TABLE_INDEX + 1][MAX_TABLE_INDEX + 1];
+        for (int depth = 1; depth <= MAX_TABLE_INDEX; depth++) {
+            for (int index = 1; index <= MAX_TABLE_INDEX; index++)
+                table[depth][index] = (int) (base + Math.log(depth) * Math.log(index) / divisor);
+        }
+        return table;
+    }
+
+    /**
+     * Prepares the worker for a new search, clearing its result and
+     * statistics.
+     *
+     * @param deadline
+     *      System.nanoTime() value at which the search stops
+     *      (Long.MAX_VALUE for none).
+     */
+    public void start(long deadline) {
+        this.deadline = deadline;
+        stats.reset();
+        ordering.age();
+        stopped = false;
+        bestMove = PackedMove.NONE;
+        rootScore = 0;
+        pvSize = 0;
+    }
+
+    /**
+     * Sets the iterations searched by run(), used by helper workers.
+     *
+     * @param startDepth
+     *      first iteration to search.
+     * @param maxDepth
+     *      last iteration to search.
+     */
+    public void setDepthRange(int startDepth, int maxDepth) {
+        this.startDepth = startDepth;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Searches the iterations given by setDepthRange() until they are done
+     * or the search is stopped. This is how helper workers search on their
+     * own thread.
+     */
+    @Override
+    public void run() {
+        for (int depth = startDepth; depth <= maxDepth; depth++) {
+            if (!searchDepth(depth))
+                break;
+        }
+    }
+
+    /**
+     * Searches a single iteration to the given depth, searching the best
+     * move of the previous iteration first.
+     * <p>
+     * Past the first few iterations, the score rarely moves far from the
+     * previous one, so the root is searched with an aspiration window around
+     * it instead of the full window: the narrower bounds cut off far more of
+     * the tree. If the score falls outside the window, it is only a bound, so
+     * the failing side of the window is widened (by the configured growth
+     * factor) and the iteration is searched again, until the score lands
+     * inside it. After a fail high, the move that failed high is searched
+     * first.
+     * </p>
+     *
+     * @param depth
+     *      ply of the iteration.
+     * @return true if the iteration completed; false if it was stopped, in
+     *      which case the result of the previous iteration is kept.
+     */
+    public boolean searchDepth(int depth) {
+        ply = depth;
+        int firstMove = bestMove;
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        int delta = aspirationDelta;
+        if (delta > 0 && depth >= ASPIRATION_MIN_DEPTH && bestMove != PackedMove.NONE && !isMateScore(rootScore)) {
+            alpha = rootScore - delta;
+            beta = rootScore + delta;
+        }
+
+        while (true) {
+            int score = searchRoot(firstMove, alpha, beta);
+            if (stopped)
+                return false;
+
+            if (score <= alpha && alpha > -INFINITY) {
+                stats.aspirationFailLows++;
+                delta = widen(delta);
+                alpha = Math.max(score - delta, -INFINITY);
+            }
+            else if (score >= beta && beta < INFINITY) {
+                stats.aspirationFailHighs++;
+                delta = widen(delta);
+                beta = Math.min(score + delta, INFINITY);
+                firstMove = pvTable[1][1];
+            }
+            else {
+                rootScore = score;
+                break;
+            }
+        }
+
+        bestMove = pvTable[1][1];
+        pvSize = pvLength[1] - 1;
+        System.arraycopy(pvTable[1], 1, principalVariation, 0, pvSize);
+        stats.depth = depth;
+        return true;
+    }
+
+    /**
+     * Grows the aspiration window after a failed search. Once the window
+     * reaches mate scores, it is opened completely.
+     *
+     * @param delta
+     *      current distance of the failing bound from the score.
+     * @return new distance.
+     */
+    private int widen(int delta) {
+        int widened = Math.max(delta + 1, (int) (delta * aspirationGrowth));
+        return widened >= MATE_SCORE ? INFINITY : widened;
+    }
+
+    /**
+     * Determines if a score announces a forced mate (for either side).
+     *
+     * @param score
+     *      search score.
+     * @return true if it is a mate score; false otherwise.
+     */
+    private static boolean isMateScore(int score) {
+        return Math.abs(score) >= MATE_BOUND;
+    }
+
+    /**
+     * Number of moves until the mate announced by a score, from the point of
+     * view of the side to move at the root.
+     *
+     * @param score
+     *      score from getScore().
+     * @return moves until the side to move mates (negative if it gets
+     *      mated), or 0 if the score isn't a mate score.
+     */
+    public static int movesToMate(int score) {
+        if (!isMateScore(score))
+            return 0;
+
+        int plies = MATE_SCORE - Math.abs(score) - 1; // the root is at currDepth 1
+        return score > 0 ? (plies + 1) / 2 : -(plies / 2);
+    }
+
+    /**
+     * Converts a mate score to the distance from the node instead of the
+     * root before storing it, since the same position can be reached at a
+     * different depth later on.
+     *
+     * @param score
+     *      search score.
+     * @param currDepth
+     *      depth of the node in the tree.
+     * @return score to store in the transposition table.
+     */
+    static int toTableScore(int score, int currDepth) {
+        if (score >= MATE_BOUND)
+            return score + currDepth;
+        if (score <= -MATE_BOUND)
+            return score - currDepth;
+        return score;
+    }
+
+    /**
+     * Converts a stored mate score back into the distance from the root, the
+     * inverse of toTableScore().
+     *
+     * @param score
+     *      score from the transposition table.
+     * @param currDepth
+     *      depth of the node in the tree.
+     * @return search score.
+     */
+    static int fromTableScore(int score, int currDepth) {
+        if (score >= MATE_BOUND)
+            return score - currDepth;
+        if (score <= -MATE_BOUND)
+            return score + currDepth;
+        return score;
+    }
+
+    /**
+     * Getter for the best move of the last completed iteration.
+     *
+     * @return packed move (PackedMove.NONE before the first iteration).
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Getter for the principal variation of the last completed iteration:
+     * the best move, followed by the best reply of each side the search
+     * expects.
+     *
+     * @return packed moves of the line, starting with getBestMove().
+     */
+    public int[] getPrincipalVariation() {
+        return Arrays.copyOf(principalVariation, pvSize);
+    }
+
+    /**
+     * Getter for the score of the last completed iteration.
+     *
+     * @return score of the best move, from the point of view of the side to
+     *      move at the root.
+     */
+    public int getScore() {
+        return rootScore;
+    }
+
+    /**
+     * Getter for the board this worker searches.
+     *
+     * @return BoardController
+     */
+    public BoardController getBoardController() {
+        return boardController;
+    }
+
+    /**
+     * Getter for the statistics of the worker's current (or last) search.
+     *
+     * @return SearchStats
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Searches every root move to the current ply within the given window.
+     * The first move (the previous iteration's best, or the transposition
+     * table move on the first iteration) is searched with the whole window,
+     * and every other move only has to prove it is no better (see
+     * alphaBeta()). The best move found is left at the start of the root's
+     * principal variation.
+     *
+     * @param firstMove
+     *      move to search first (or PackedMove.NONE).
+     * @param alpha
+     *      lower bound of the window.
+     * @param beta
+     *      upper bound of the window.
+     * @return score of the best move: exact within the window, and otherwise
+     *      a bound beyond the side it failed on. Meaningless if the search
+     *      was stopped.
+     */
+    private int searchRoot(int firstMove, int alpha, int beta) {
+        int move; int bestBranch = PackedMove.NONE;
+        int bestScore = -INFINITY;
+        int originalAlpha = alpha;
+        int searched = 0;
+        long rootKey = boardController.getBitboard().getZobristKey();
+        MoveBuffer moves = searchStack[1];
+        boardController.generateMoves(moves);
+        pvLength[1] = 1;
+        pvTable[1][1] = firstMove; // kept as the best move if every move fails low
+
+        if (moves.isEmpty()) {
+            pvTable[1][1] = PackedMove.NONE;
+            return boardController.isInCheck() ? -MATE_SCORE + 1 : 0; // the game is already over
+        }
+
+        moves.order(ordering, 1, PackedMove.NONE);
+        if (!moves.prioritizeMove(firstMove))
+            moves.prioritize(TranspositionTable.bestMove(probeTable(rootKey)));
+
+        while ((move = moves.next()) != PackedMove.NONE) {
+            searched++;
+            moveStack[1] = move;
+            boardController.makeMinimaxMove(move);
+            int score;
+            if (searched == 1) {
+                score = -alphaBeta(ply - 1, 2, -beta, -alpha);
+            }
+            else {
+                score = -alphaBeta(ply - 1, 2, -alpha - 1, -alpha);
+                if (score > alpha && score < beta)
+                    score = -alphaBeta(ply - 1, 2, -beta, -alpha);
+            }
+            boardController.unmakeMove(move);
+            if (stopped)
+                return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestBranch = move;
+                    updatePv(1, move);
+                }
+            }
+
+            if (alpha >= beta)
+                break; // fail high, the window is widened and the root searched again
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                  : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        transpositionTable.store(rootKey, ply, bound, toTableScore(bestScore, 1), bestBranch);
+        return bestScore;
+    }
+
+    /**
+     * <p>
+     * Primary recursive algorithm, in negamax form: every score is from the
+     * point of view of the side to move, so a child's score is negated (and
+     * its window flipped) on the way back up, and the same code serves both
+     * sides. This will search each subtree with every legal move until the
+     * depth left runs out, where the quiescence search takes over to settle
+     * any captures left pending before returning up the tree. Every node
+     * probes the transposition table first, and stores its result (along
+     * with the bound type relative to alpha and beta) once searched.
+     * </p><p>
+     * Before searching any move, the side to move may pass instead (null
+     * move pruning). If the opponent, even with a free move and a reduced
+     * search, still can't bring the score below beta, a real move surely
+     * wouldn't either, so the node is cut off without searching its moves.
+     * This is skipped in check (passing would be illegal), at PV nodes,
+     * right after another pass, and when the side to move only has its king
+     * and pawns, where zugzwang makes passing better than any real move.
+     * </p><p>
+     * Good move ordering means a late quiet move rarely raises alpha, so
+     * those are searched less: near the leaves they are pruned once enough
+     * moves were searched (late move pruning), and elsewhere they are
+     * searched to a reduced depth taken from the reduction table, growing
+     * with both the depth and the move's index (late move reductions).
+     * </p><p>
+     * Moves are searched as a principal variation search: the first move
+     * (expected to be the best, given the move ordering) gets the full
+     * window, while the rest are searched with a zero-width window around
+     * alpha, which only proves whether they are better and cuts off much
+     * sooner. Only a move that turns out better is searched again with the
+     * full window to get its exact score.
+     * </p><p>
+     * A checkmated node scores -MATE_SCORE plus its distance from the root,
+     * so a faster mate always scores higher (and a slower one is preferred
+     * when getting mated). The same distance also bounds the window (mate
+     * distance pruning): once a mate is found, branches that couldn't mate
+     * any sooner are cut off. Mate scores are stored in the transposition
+     * table relative to the node instead of the root.
+     * </p><p>
+     * The best line found is collected in the triangular PV table, each node
+     * taking its best move followed by the line of its child.
+     * Note: must be invoked with alpha < beta for proper usage.
+     * </p>
+     *
+     * @param depth
+     *      plies left to search before the quiescence search takes over.
+     * @param currDepth
+     *      distance of the node from the root (1), indexing the search stack.
+     * @param alpha
+     *      Alpha value for pruning (the score the side to move already has).
+     * @param beta
+     *      Beta value for pruning (the score the opponent already has,
+     *      negated).
+     * @return int
+     *      Evaluation for the subtree, from the side to move's point of view.
+     */
+    private int alphaBeta(int depth, int currDepth, int alpha, int beta) {
+        if (alpha >= beta) throw new IllegalStateException("alphaBeta shouldn't be invoked with alpha >= beta");
+        if (depth <= 0)
+            return quiescence(currDepth, alpha, beta);
+
+        stats.nodes++;
+        if ((stats.nodes & (TIME_CHECK_INTERVAL - 1)) == 0)
+            checkTime();
+        pvLength[currDepth] = currDepth;
+        boolean pvNode = beta - alpha > 1;
+
+        // Mate distance pruning: even mating right away can't beat a shorter mate already found above this node, and
+        // getting mated here can't be worse than a faster mate, so the window shrinks to the scores still reachable.
+        alpha = Math.max(alpha, -MATE_SCORE + currDepth);
+        beta = Math.min(beta, MATE_SCORE - currDepth - 1);
+        if (alpha >= beta)
+            return alpha;
+
+        // Probe the transposition table before generating any moves. If this position was already searched at least
+        // as deep, the stored bound may decide the result without searching the subtree again. PV nodes keep
+        // searching, so the principal variation isn't cut short.
+        long key = boardController.getBitboard().getZobristKey();
+        long entry = probeTable(key);
+        if (!pvNode && entry != TranspositionTable.MISS && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTableScore(TranspositionTable.score(entry), currDepth);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                    || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                stats.ttCutoffs++;
+                return score;
+            }
+        }
+
+        boolean inCheck = boardController.isInCheck();
+        if (nullMovePruning && !pvNode && !inCheck && depth >= NULL_MOVE_MIN_DEPTH
+                && moveStack[currDepth - 1] != PackedMove.NONE && boardController.hasNonPawnMaterial()
+                && evaluate() >= beta) {
+            int reduction = depth > 6 ? 3 : 2;
+            moveStack[currDepth] = PackedMove.NONE; // marks the pass, so the child doesn't pass right back
+            boardController.makeNullMove();
+            int score = -alphaBeta(depth - 1 - reduction, currDepth + 1, -beta, -beta + 1);
+            boardController.unmakeNullMove();
+            if (stopped)
+                return 0;
+
+            if (score >= beta) {
+                stats.nullMoveCutoffs++;
+                return score >= MATE_BOUND ? beta : score; // a mate found after a pass isn't proven
+            }
+        }
+
+        MoveBuffer moves = searchStack[currDepth];
+        boardController.generateMoves(moves);
+        moves.order(ordering, currDepth, moveStack[currDepth - 1]);
+        moves.prioritize(TranspositionTable.bestMove(entry)); // searched first when available
+
+        if (moves.isEmpty()) {
+            // No legal moves, so the game is over: checkmate if the side to move is in check, stalemate otherwise.
+            return inCheck ? -MATE_SCORE + currDepth : 0; // the sooner the mate, the worse for the mated side
+        }
+
+        int nextMove;
+        int bestMove = PackedMove.NONE;
+        int bestScore = -INFINITY;
+        int originalAlpha = alpha;
+        int searched = 0;
+        int quietsSearched = 0;
+
+        while ((nextMove = moves.next()) != PackedMove.NONE) {
+            boolean quiet = !PackedMove.isCapture(nextMove) && !PackedMove.isPromotion(nextMove);
+
+            // Late move pruning: near the leaves, quiet moves past the first few are skipped outright. Whether a move
+            // gives check is only known once it is made, so checking moves are pruned along with the rest. Nothing is
+            // pruned while every move so far is mated, since an unsearched quiet move may still escape the mate.
+            if (quiet) {
+                if (lateMovePruning && !pvNode && !inCheck && depth <= lmpMoveCounts.length
+                        && quietsSearched >= lmpMoveCounts[depth - 1] && bestScore > -MATE_BOUND) {
+                    stats.lateMovesPruned++;
+                    continue;
+                }
+                quietsSearched++;
+            }
+            searched++; // pruned moves aren't counted, so they don't hasten or deepen the reductions
+
+            // Late move reductions apply to quiet moves and losing captures late in the ordering. The exchange is
+            // checked last (and before the move is made, as it reads the current board), so it only runs for the
+            // captures that pass every cheaper test.
+            boolean reducible = lateMoveReductions && !inCheck && depth >= LMR_MIN_DEPTH && searched > LMR_FULL_MOVES
+                    && (quiet || staticExchange.isLosing(nextMove));
+
+            moveStack[currDepth] = nextMove;
+            boardController.makeMinimaxMove(nextMove);
+            int score;
+            if (searched == 1) {
+                score = -alphaBeta(depth - 1, currDepth + 1, -beta, -alpha);
+            }
+            else {
+                // Late move reductions: a quiet move (or losing capture) late in the ordering that doesn't give check
+                // is searched to a lower depth first, and only searched again at full depth if it beats alpha.
+                int reduction = 0;
+                if (reducible && !boardController.isInCheck()) {
+                    reduction = reductions[Math.min(depth, MAX_TABLE_INDEX)][Math.min(searched, MAX_TABLE_INDEX)];
+                    if (pvNode)
+                        reduction--;
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
+
+                score = -alphaBeta(depth - 1 - reduction, currDepth + 1, -alpha - 1, -alpha); // better than alpha?
+                if (reduction > 0 && score > alpha) {
+                    stats.reSearches++;
+                    score = -alphaBeta(depth - 1, currDepth + 1, -alpha - 1, -alpha);
+                }
+                if (score > alpha && score < beta)
+                    score = -alphaBeta(depth - 1, currDepth + 1, -beta, -alpha); // it is, so find out by how much
+            }
+            boardController.unmakeMove(nextMove);
+            if (stopped)
+                return 0; // the iteration is abandoned, so the result is never used
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = nextMove;
+                    updatePv(currDepth, nextMove);
+                }
+            }
+
+            if (alpha >= beta) {
+                recordCutoff(nextMove, depth, currDepth, searched);
+                transpositionTable.store(key, depth, TranspositionTable.LOWER_BOUND, toTableScore(bestScore, currDepth),
+                        bestMove);
+                return bestScore; // prune the remaining moves
+            }
+        }
+
+        int bound = alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        transpositionTable.store(key, depth, bound, toTableScore(bestScore, currDepth), bestMove);
+        return bestScore;
+    }
+
+    /**
+     * <p>
+     * Quiescence search, run in place of a static evaluation once the ply is
+     * reached. Evaluating a position in the middle of an exchange would miss
+     * the recapture, so only captures and promotions are searched here until
+     * the position is quiet.
+     * </p><p>
+     * The side to move may "stand pat" on the static evaluation, since it
+     * isn't forced to capture. That score bounds the node right away, and is
+     * often enough for a cutoff by itself. A capture is also skipped (delta
+     * pruning) when even winning the captured piece outright, plus a margin,
+     * can't bring the score back up to alpha, and when the static exchange
+     * evaluation shows it loses material.
+     * </p><p>
+     * When the side to move is in check, standing pat isn't an option, so
+     * every evasion is searched instead (finding checkmates on the way).
+     * </p>
+     *
+     * @param currDepth
+     *      depth of the node in the tree.
+     * @param alpha
+     *      Alpha value for pruning.
+     * @param beta
+     *      Beta value for pruning.
+     * @return int
+     *      Evaluation for the subtree, from the side to move's point of view.
+     */
+    private int quiescence(int currDepth, int alpha, int beta) {
+        stats.nodes++;
+        stats.qNodes++;
+        if ((stats.nodes & (TIME_CHECK_INTERVAL - 1)) == 0)
+            checkTime();
+        pvLength[currDepth] = currDepth; // captures aren't part of the reported line
+        if (currDepth == STACK_SIZE - 1)
+            return evaluate(); // out of stack, which only a very long series of checks could reach
+
+        boolean inCheck = boardController.isInCheck();
+        MoveBuffer moves = searchStack[currDepth];
+        int standPat = 0;
+        int bestScore;
+
+        if (inCheck) {
+            boardController.generateMoves(moves);
+            if (moves.isEmpty())
+                return -MATE_SCORE + currDepth;
+            bestScore = -INFINITY;
+        }
+        else {
+            standPat = evaluate();
+            if (standPat >= beta)
+                return standPat;
+            alpha = Math.max(alpha, standPat);
+            bestScore = standPat;
+            boardController.generateCaptures(moves);
+        }
+
+        int move;
+        while ((move = moves.next()) != PackedMove.NONE) {
+            if (!inCheck && !PackedMove.isPromotion(move)) {
+                // Delta pruning: skip captures that can't raise alpha even when they win material
+                if (standPat + Evaluator.pieceValue(PackedMove.captured(move)) + DELTA_MARGIN <= alpha)
+                    continue;
+
+                // captures that lose material once the exchange plays out can't be better than standing pat
+                if (staticExchange.isLosing(move)) {
+                    stats.losingCapturesPruned++;
+                    continue;
+                }
+            }
+
+            boardController.makeMinimaxMove(move);
+            int score = -quiescence(currDepth + 1, -beta, -alpha);
+            boardController.unmakeMove(move);
+            if (stopped)
+                return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                alpha = Math.max(alpha, score);
+            }
+
+            if (alpha >= beta)
+                break;
+        }
+        return bestScore;
+    }
+
+    /**
+     * Static evaluation from the point of view of the side to move, from the
+     * evaluation cache when the position was evaluated before.
+     *
+     * @return evaluation.
+     */
+    private int evaluate() {
+        if (evalCache == null)
+            return evaluator.evaluate(boardController.getTurn());
+
+        long key = boardController.getBitboard().getZobristKey();
+        stats.evalProbes++;
+        int score = evalCache.probe(key);
+        if (score != EvalCache.MISS) {
+            stats.evalHits++;
+            return score;
+        }
+
+        score = evaluator.evaluate(boardController.getTurn());
+        evalCache.store(key, score);
+        return score;
+    }
+
+    /**
+     * Makes the move the start of the principal variation at the given depth,
+     * followed by the variation its child found.
+     *
+     * @param currDepth
+     *      depth of the node whose best move changed.
+     * @param move
+     *      the node's new best move.
+     */
+    private void updatePv(int currDepth, int move) {
+        int[] line = pvTable[currDepth];
+        line[currDepth] = move;
+        int childLength = pvLength[currDepth + 1];
+        System.arraycopy(pvTable[currDepth + 1], currDepth + 1, line, currDepth + 1, childLength - currDepth - 1);
+        pvLength[currDepth] = Math.max(childLength, currDepth + 1);
+    }
+
+    /**
+     * Counts a beta cutoff for the statistics, and teaches the move ordering
+     * tables about it when the move was quiet (captures are already ordered
+     * first).
+     *
+     * @param move
+     *      packed move that caused the cutoff.
+     * @param depth
+     *      plies that were left to search below the node.
+     * @param currDepth
+     *      depth of the node in the tree.
+     * @param searched
+     *      number of moves searched at the node, including this one.
+     */
+    private void recordCutoff(int move, int depth, int currDepth, int searched) {
+        stats.cutoffs++;
+        if (searched == 1)
+            stats.firstMoveCutoffs++;
+
+        if (!PackedMove.isCapture(move) && !PackedMove.isPromotion(move))
+            ordering.update(move, currDepth, depth, moveStack[currDepth - 1]);
+    }
+
+    /**
+     * Probes the transposition table while keeping count of the probes and
+     * hits for the search statistics.
+     *
+     * @param key
+     *      Zobrist key of the position.
+     * @return packed entry, or TranspositionTable.MISS.
+     */
+    private long probeTable(long key) {
+        stats.ttProbes++;
+        long entry = transpositionTable.probe(key);
+        if (entry != TranspositionTable.MISS)
+            stats.ttHits++;
+
+        return entry;
+    }
+
+    /**
+     * Stops the search once the deadline passes, or once the search was
+     * stopped as a whole (the main worker finished). Depth 1 is never
+     * stopped, so there is always a completed iteration to fall back on.
+     */
+    private void checkTime() {
+        if (ply > 1 && (stopSignal.get() || System.nanoTime() >= deadline))
+            stopped = true;
+    }
+}
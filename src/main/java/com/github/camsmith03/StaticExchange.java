@@ -0,0 +1,116 @@
+package com.github.camsmith03;
+
+/**
+ * <p>
+ * Static exchange evaluation (SEE): the material outcome of a capture once
+ * every piece attacking the square has had the chance to recapture, each side
+ * capturing with its least valuable piece first and stopping whenever
+ * continuing would lose more. No moves are made; only the occupancy is
+ * updated as pieces leave the square's attackers, which also uncovers the
+ * sliders lined up behind them (x-rays), such as a rook behind a rook or a
+ * queen behind a bishop.
+ * </p><p>
+ * The search uses it to split captures into good and bad ones for ordering
+ * (a queen taking a defended pawn is no longer tried first), and to skip
+ * losing captures in the quiescence search.
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class StaticExchange {
+    private static final int[] VALUE = {1, 3, 3, 5, 9, 100, 0}; // pawn units; the king only ever captures last
+    private static final int KING = Piece.Type.KING.ordinal();
+    private final Bitboard board;
+    private final int[] gain = new int[32]; // material balance after each capture of the exchange
+
+    /**
+     * Constructor for StaticExchange.
+     *
+     * @param board
+     *      bitboard whose current (possibly virtual) position is evaluated.
+     */
+    public StaticExchange(Bitboard board) {
+        this.board = board;
+    }
+
+    /**
+     * Evaluates the exchange started by a capture (or promotion), from the
+     * point of view of the side making it.
+     *
+     * @param move
+     *      packed move (legal in the current position).
+     * @return material won (negative if lost), in pawns.
+     */
+    public int evaluate(int move) {
+        long[][] boards = board.getVirtualBoards();
+        int to = PackedMove.to(move);
+        int side = PackedMove.colorIndex(move);
+        long occupied = board.getGameBoard() ^ PackedMove.fromMask(move);
+        if (PackedMove.isEnPassant(move))
+            occupied ^= 1L << PackedMove.enPassantSquare(move);
+
+        int depth = 0;
+        int onSquare = PackedMove.moved(move); // type of the piece that would be captured next
+        gain[0] = VALUE[PackedMove.captured(move)];
+        if (PackedMove.isPromotion(move)) {
+            onSquare = PackedMove.promoted(move);
+            gain[0] += VALUE[onSquare] - VALUE[0];
+        }
+
+        long attackers = board.attackersTo(to, occupied) & occupied;
+        long diagonalSliders = boards[0][2] | boards[0][4] | boards[1][2] | boards[1][4];
+        long straightSliders = boards[0][3] | boards[0][4] | boards[1][3] | boards[1][4];
+
+        while (true) {
+            side = 1 - side;
+            long sideAttackers = attackers & (boards[side][0] | boards[side][1] | boards[side][2] | boards[side][3]
+                                              | boards[side][4] | boards[side][5]);
+            if (sideAttackers == 0)
+                break;
+
+            // capture with the least valuable attacker
+            int type = 0;
+            long attacker = sideAttackers & boards[side][0];
+            while (attacker == 0)
+                attacker = sideAttackers & boards[side][++type];
+
+            // the king can't recapture into a square the opponent still attacks
+            if (type == KING && (attackers & ~sideAttackers) != 0)
+                break;
+
+            depth++;
+            gain[depth] = VALUE[onSquare] - gain[depth - 1]; // balance if the exchange stopped after this capture
+            occupied ^= attacker & -attacker;
+            attackers |= (AttackTables.bishopAttacks(to, occupied) & diagonalSliders)
+                       | (AttackTables.rookAttacks(to, occupied) & straightSliders); // x-rays
+            attackers &= occupied;
+            onSquare = type;
+        }
+
+        // each side only continues the exchange if it's better than stopping
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * Determines if a capture loses material once the exchange plays out.
+     * Taking a piece at least as valuable as the capturer (or capturing with
+     * the king, which is only legal on an undefended square) can never lose,
+     * so only the remaining captures need the full evaluation.
+     *
+     * @param move
+     *      packed capture (legal in the current position).
+     * @return true if the exchange loses material; false otherwise.
+     */
+    public boolean isLosing(int move) {
+        int moved = PackedMove.moved(move);
+        if (moved == KING || VALUE[PackedMove.captured(move)] >= VALUE[moved])
+            return false;
+
+        return evaluate(move) < 0;
+    }
+}
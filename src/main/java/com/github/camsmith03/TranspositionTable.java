@@ -0,0 +1,163 @@
+package com.github.camsmith03;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Fixed size hash table that remembers the result of previously searched
+ * positions, indexed by their Zobrist key. Since many move orders lead to the
+ * same position (transpositions), a search can reuse the stored score instead
+ * of searching the subtree again, and the stored best move is tried first
+ * otherwise.
+ * </p><p>
+ * Entries are kept in two parallel long arrays (the key and a packed data
+ * word), so the table never allocates after construction. The table is
+ * shared by every search thread without any locking: the key is stored XORed
+ * with the data word, so an entry whose two halves were written by different
+ * threads (a torn write) simply fails to match on the next probe, and is
+ * treated as a miss. The packed data word is laid out as:
+ * <ul>
+ * <li>bits  0-31: score</li>
+ * <li>bits 32-39: depth (plies remaining below the node)</li>
+ * <li>bits 40-41: bound type</li>
+ * <li>bits 42-56: best move (from square, to square, promoted type)</li>
+ * </ul>
+ * </p>
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2; // score is at least the stored value (beta cutoff)
+    public static final int UPPER_BOUND = 3; // score is at most the stored value (failed low)
+    public static final long MISS = 0;
+
+    private static final int ENTRY_BYTES = 16;
+    private final long[] keys;
+    private final long[] data;
+    private final int indexMask;
+
+    /**
+     * Allocates a table using (at most) the given number of megabytes. The
+     * entry count is rounded down to a power of two so an index can be found
+     * with a single mask.
+     *
+     * @param sizeMb
+     *      memory budget for the table in megabytes (at least 1).
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1)
+            throw new IllegalArgumentException("Transposition table size must be at least 1 MB");
+
+        long entries = Long.highestOneBit(((long) sizeMb << 20) / ENTRY_BYTES);
+        entries = Math.min(entries, 1 << 30);
+        keys = new long[(int) entries];
+        data = new long[(int) entries];
+        indexMask = (int) entries - 1;
+    }
+
+    /**
+     * Looks up the entry for the given key.
+     *
+     * @param key
+     *      Zobrist key of the position.
+     * @return packed data word, or MISS if the position isn't stored.
+     */
+    public long probe(long key) {
+        int index = (int) key & indexMask;
+        long entry = data[index];
+        if ((keys[index] ^ entry) == key)
+            return entry;
+
+        return MISS;
+    }
+
+    /**
+     * Stores a search result. Entries for a different position are always
+     * replaced (the newer one is more likely to be needed again), while an
+     * entry for the same position is only replaced by a search at least as
+     * deep.
+     *
+     * @param key
+     *      Zobrist key of the position.
+     * @param depth
+     *      plies searched below the position.
+     * @param bound
+     *      EXACT, LOWER_BOUND, or UPPER_BOUND.
+     * @param score
+     *      score of the search.
+     * @param bestMove
+     *      packed best move found (or PackedMove.NONE if none).
+     */
+    public void store(long key, int depth, int bound, int score, int bestMove) {
+        int index = (int) key & indexMask;
+        long old = data[index];
+        if ((keys[index] ^ old) == key && depth < depth(old))
+            return;
+
+        long entry = (score & 0xFFFFFFFFL)
+                   | ((long) depth << 32)
+                   | ((long) bound << 40)
+                   | ((long) encodeMove(bestMove) << 42);
+        keys[index] = key ^ entry;
+        data[index] = entry;
+    }
+
+    /**
+     * Wipes every entry, typically done when a new game is started.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    /**
+     * Returns the encoded best move of an entry (0 if none was stored). The
+     * value can be compared against moves with matchesMove().
+     *
+     * @param entry
+     *      packed data word returned by probe().
+     * @return encoded move.
+     */
+    public static int bestMove(long entry) {
+        return (int) (entry >>> 42) & 0x7FFF;
+    }
+
+    /**
+     * Checks whether an encoded best move refers to the given move.
+     *
+     * @param encoded
+     *      value returned by bestMove().
+     * @param move
+     *      packed move to compare against.
+     * @return true if the move matches; false otherwise.
+     */
+    public static boolean matchesMove(int encoded, int move) {
+        return encoded != 0 && encoded == encodeMove(move);
+    }
+
+    /**
+     * Packs the from square, to square, and promoted type of a move into 15
+     * bits. That is enough to identify the move among the ones generated for
+     * the same position. The squares already sit in the low 12 bits of a
+     * packed move.
+     */
+    private static int encodeMove(int move) {
+        if (move == PackedMove.NONE)
+            return 0;
+
+        return (move & 0xFFF) | (PackedMove.promoted(move) << 12);
+    }
+}
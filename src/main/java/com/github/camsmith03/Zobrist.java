@@ -0,0 +1,96 @@
+package com.github.camsmith03;
+
+/**
+ * Holds the random keys used to build the Zobrist hash of a board position.
+ * Every (color, piece type, square) triple has its own key, along with keys
+ * for the side to move, each castle-able rook square, and each en passant
+ * square. The hash of a position is the XOR of the keys for every feature
+ * present, which means a move only needs to XOR out what it removed and XOR
+ * in what it added.
+ * <br>
+ * The keys are generated from a fixed seed so hashes are reproducible between
+ * runs, which keeps debugging and benchmarking deterministic.
+ *
+ * @author Cameron Smith
+ * @version 10.18.2026
+ */
+public final class Zobrist {
+    static final long[][][] PIECES = new long[2][6][64];
+    static final long[] CASTLE_ROOKS = new long[64];
+    static final long[] EN_PASSANT = new long[64];
+    static final long SIDE;
+
+    static {
+        long seed = 0x2C6FE96EE78B6955L;
+        for (int c = 0; c < 2; c++) {
+            for (int t = 0; t < 6; t++) {
+                for (int sq = 0; sq < 64; sq++) {
+                    seed = nextSeed(seed);
+                    PIECES[c][t][sq] = mix(seed);
+                }
+            }
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            seed = nextSeed(seed);
+            CASTLE_ROOKS[sq] = mix(seed);
+            seed = nextSeed(seed);
+            EN_PASSANT[sq] = mix(seed);
+        }
+        seed = nextSeed(seed);
+        SIDE = mix(seed);
+    }
+
+    private Zobrist() {}
+
+    /**
+     * Key for the castle-able rooks mask (boards[colorIndex][6]). Each rook
+     * still able to castle contributes its own square key.
+     *
+     * @param castleRooks
+     *      mask of the rooks that can still castle.
+     * @return combined key for the mask.
+     */
+    static long castleKey(long castleRooks) {
+        long key = 0;
+        while (castleRooks != 0) {
+            key ^= CASTLE_ROOKS[Long.numberOfTrailingZeros(castleRooks)];
+            castleRooks &= castleRooks - 1;
+        }
+        return key;
+    }
+
+    /**
+     * Key for the en passant board. The board holds the pawn that was pushed
+     * two squares as well as any opposing pawns able to capture it. A pushed
+     * pawn alone (with no pawn beside it to take it) changes nothing about the
+     * position, so it is left out of the key, and the key is only non-zero
+     * when an en passant capture is actually available. This way a double
+     * push hashes the same as the position reached by transposition.
+     *
+     * @param enPassantBoard
+     *      current value of Bitboard.enPassantBoard.
+     * @return combined key for the board.
+     */
+    static long enPassantKey(long enPassantBoard) {
+        if ((enPassantBoard & (enPassantBoard - 1)) == 0)
+            return 0; // no capturer beside the pushed pawn
+
+        long key = 0;
+        while (enPassantBoard != 0) {
+            key ^= EN_PASSANT[Long.numberOfTrailingZeros(enPassantBoard)];
+            enPassantBoard &= enPassantBoard - 1;
+        }
+        return key;
+    }
+
+    // SplitMix64 step, good enough to produce well distributed 64 bit keys.
+    private static long nextSeed(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.camsmith03;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluatorTests {
+    private static final String[] POSITIONS = {
+            Fen.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1"};
+    private static final int GAMES = 40;
+    private static final int MAX_PLIES = 120;
+
+    /**
+     * Checks the incremental accumulators (and pawn key) against a recount of
+     * every piece.
+     */
+    private static void assertScores(Bitboard bitboard, String context) {
+        long[][] boards = bitboard.getVirtualBoards();
+        int score = 0;
+        int phase = 0;
+        long pawnKey = 0;
+        for (int color = 0; color < 2; color++) {
+            for (int type = 0; type < 6; type++) {
+                long pieces = boards[color][type];
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    score += Evaluator.pieceSquareValue(color, type, square);
+                    phase += Evaluator.phaseWeight(type);
+                    if (type == 0)
+                        pawnKey ^= Zobrist.PIECES[color][0][square];
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+        assertEquals(score, bitboard.getPieceSquareScore(), "piece-square score " + context);
+        assertEquals(phase, bitboard.getPhase(), "phase " + context);
+        assertEquals(pawnKey, bitboard.getPawnKey(), "pawn key " + context);
+    }
+
+    @Test
+    void testIncrementalScoresMatchRecount() {
+        Random random = new Random(20261018);
+        MoveGenerator moveGenerator = new MoveGenerator();
+        int[][] moves = new int[MAX_PLIES][MoveBuffer.MAX_MOVES];
+        int[] played = new int[MAX_PLIES];
+
+        for (String fen : POSITIONS) {
+            for (int game = 0; game < GAMES; game++) {
+                BoardController boardController = new BoardController(fen);
+                Bitboard bitboard = boardController.getBitboard();
+                Piece.Color turn = boardController.getTurn();
+                assertScores(bitboard, fen);
+
+                int plies = 0;
+                while (plies < MAX_PLIES) {
+                    int size = moveGenerator.generateMoves(bitboard, turn, moves[plies]);
+                    if (size == 0)
+                        break;
+
+                    played[plies] = moves[plies][random.nextInt(size)];
+                    bitboard.makeMove(played[plies]);
+                    plies++;
+                    turn = turn == Piece.Color.WHITE ? Piece.Color.BLACK : Piece.Color.WHITE;
+                    assertScores(bitboard, fen + " after " + plies + " plies");
+                }
+
+                // unmaking restores each earlier position's scores
+                while (plies > 0) {
+                    bitboard.unmakeMove(played[--plies]);
+                    assertScores(bitboard, fen + " undone to " + plies + " plies");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testVirtualMovesRestoreScores() {
+        Random random = new Random(7);
+        BoardController boardController = new BoardController(POSITIONS[1]);
+        Bitboard bitboard = boardController.getBitboard();
+        for (int ply = 0; ply < 60; ply++) {
+            MoveList legal = boardController.getLegalMoves();
+            if (legal.isEmpty())
+                break;
+
+            int[] moves = new int[legal.size()];
+            for (int i = 0; i < moves.length; i++)
+                moves[i] = legal.pop();
+
+            // trying a move virtually and wiping it leaves the scores untouched
+            int score = bitboard.getPieceSquareScore();
+            int phase = bitboard.getPhase();
+            assertTrue(bitboard.isMoveLegal(PackedMove.toMove(moves[random.nextInt(moves.length)])));
+            assertScores(bitboard, "virtual move at ply " + ply);
+            bitboard.wipeVirtualization();
+            assertEquals(score, bitboard.getPieceSquareScore());
+            assertEquals(phase, bitboard.getPhase());
+
+            boardController.move(PackedMove.toMove(moves[random.nextInt(moves.length)]));
+            assertScores(bitboard, "ply " + ply);
+        }
+    }
+
+    @Test
+    void testPackedScores() {
+        int[] values = {0, 1, -1, 2, -2, 37, -37, 1000, -1000};
+        for (int middlegame : values) {
+            for (int endgame : values) {
+                int packed = Evaluator.pack(middlegame, endgame);
+                assertEquals(middlegame, Evaluator.middlegame(packed));
+                assertEquals(endgame, Evaluator.endgame(packed));
+                // packed scores add up half by half
+                int sum = packed + Evaluator.pack(-3, 5);
+                assertEquals(middlegame - 3, Evaluator.middlegame(sum));
+                assertEquals(endgame + 5, Evaluator.endgame(sum));
+            }
+        }
+    }
+
+    @Test
+    void testPhaseTapersPlacement() {
+        // every starting piece on the board: only the middlegame bonus counts (the knight on d4 instead of b1,
+        // leaving out the knight's mobility)
+        Bitboard start = new BoardController().getBitboard();
+        Bitboard centralKnight = new BoardController("rnbqkbnr/pppppppp/8/8/3N4/8/PPPPPPPP/R1BQKBNR w KQkq - 0 1")
+                .getBitboard();
+        assertEquals(Evaluator.MAX_PHASE, start.getPhase());
+        assertEquals(30, Evaluator.middlegame(centralKnight.getPieceSquareScore() - start.getPieceSquareScore()));
+
+        // only kings and pawns left: only the endgame bonus counts (the central king)
+        assertEquals(0, new BoardController("4k3/8/8/8/8/8/PPP5/4K3 w - - 0 1").getBitboard().getPhase());
+        assertEquals(30, evaluate("7k/8/8/8/4K3/8/8/8 w - - 0 1") - evaluate("7k/8/8/8/8/8/8/4K3 w - - 0 1"));
+
+        // queens left (phase 8 of 24): two thirds of the king's endgame bonus (the king blocks neither queen)
+        assertEquals(8, new BoardController("4k3/q7/8/8/4K3/8/Q7/8 w - - 0 1").getBitboard().getPhase());
+        assertEquals(20, evaluate("4k3/q7/8/8/4K3/8/Q7/8 w - - 0 1") - evaluate("4k3/q7/8/8/8/8/Q7/4K3 w - - 0 1"));
+    }
+
+    @Test
+    void testPawnStructure() {
+        long e2 = 1L << 12, e3 = 1L << 20, d4 = 1L << 27, e4 = 1L << 28, c6 = 1L << 42, d6 = 1L << 43;
+        // doubled and isolated, and only the front pawn counts as passed
+        assertEquals(Evaluator.DOUBLED_PAWN + 2 * Evaluator.ISOLATED_PAWN + Evaluator.PASSED_PAWN[2],
+                Evaluator.pawnScore(e2 | e3, 0));
+        // side by side, with c6 stopping d4 but not e4
+        assertEquals(Evaluator.PASSED_PAWN[3], Evaluator.pawnScore(d4 | e4, c6));
+        // d6 stops both
+        assertEquals(0, Evaluator.pawnScore(d4 | e4, d6));
+        // an enemy pawn level with or behind the pawn doesn't stop it
+        assertEquals(Evaluator.ISOLATED_PAWN + Evaluator.PASSED_PAWN[3], Evaluator.pawnScore(e4, d4 | e3));
+    }
+
+    @Test
+    void testActivity() {
+        // a knight in the corner reaches b3 and c2, one in the center all eight squares
+        long[][] boards = new long[2][6];
+        boards[0][5] = 1L << 4; // e1
+        boards[1][5] = 1L << 60; // e8
+        boards[0][1] = 1L; // a1
+        assertEquals(2 * Evaluator.MOBILITY[1], Evaluator.activityEval(boards));
+        boards[0][1] = 1L << 27; // d4
+        assertEquals(8 * Evaluator.MOBILITY[1], Evaluator.activityEval(boards));
+
+        // a black pawn on d7 guards c6 and e6, and a white pawn on e2 takes one more square
+        boards[1][0] = 1L << 51;
+        boards[0][0] = 1L << 12;
+        assertEquals(5 * Evaluator.MOBILITY[1], Evaluator.activityEval(boards));
+
+        // a queen on d7 hits d8, e8, e7 and f7 of the king's zone, but needs a second attacker to count: the rook
+        // on e3 (hitting e7 and e8) makes (4 * 5 + 2 * 3)^2 units, capped at 500, and reaches one square less than
+        // on a3
+        long[][] attack = new long[2][6];
+        attack[0][5] = 1L << 4; // e1
+        attack[1][5] = 1L << 60; // e8
+        attack[0][4] = 1L << 51; // d7
+        attack[0][3] = 1L << 16; // a3
+        int queenAlone = Evaluator.activityEval(attack);
+        attack[0][3] = 1L << 20; // e3
+        assertEquals(Evaluator.pack(500, 0) - Evaluator.MOBILITY[3], Evaluator.activityEval(attack) - queenAlone);
+    }
+
+    @Test
+    void testEvaluationIsColorSymmetric() {
+        // the same position with the colors swapped (and the board flipped) scores the same for the other side
+        String[][] pairs = {
+                {"4k3/pp3p2/8/3P4/8/8/PPP2P1P/4K3 w - - 0 1", "4k3/ppp2p1p/8/8/3p4/8/PP3P2/4K3 b - - 0 1"},
+                {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                        "r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1"}};
+        for (String[] pair : pairs) {
+            BoardController white = new BoardController(pair[0]);
+            BoardController black = new BoardController(pair[1]);
+            assertEquals(new Evaluator(white.getBitboard()).evaluate(Piece.Color.WHITE),
+                    new Evaluator(black.getBitboard()).evaluate(Piece.Color.BLACK), pair[0]);
+        }
+    }
+
+    @Test
+    void testPawnTableHits() {
+        SearchStats stats = new SearchStats();
+        BoardController boardController = new BoardController();
+        Evaluator evaluator = new Evaluator(boardController.getBitboard(), stats);
+        int score = evaluator.evaluate(Piece.Color.WHITE);
+        assertEquals(0, stats.pawnHits);
+
+        // a knight move (g1f3) leaves the pawns (and their key) alone
+        int knightMove = PackedMove.encode(6, 21, 1, 0, PackedMove.NO_PIECE, PackedMove.NO_PIECE, 0);
+        boardController.getBitboard().makeMove(knightMove);
+        evaluator.evaluate(Piece.Color.WHITE);
+        assertEquals(1, stats.pawnHits);
+        assertEquals(2, stats.pawnProbes);
+        assertEquals(50.0, stats.getPawnHitRate());
+
+        boardController.getBitboard().unmakeMove(knightMove);
+        assertEquals(score, evaluator.evaluate(Piece.Color.WHITE));
+    }
+
+    @Test
+    void testEvalCache() {
+        EvalCache cache = new EvalCache(1);
+        long key = new BoardController(POSITIONS[1]).getBitboard().getZobristKey();
+        assertEquals(EvalCache.MISS, cache.probe(key));
+        cache.store(key, -37);
+        assertEquals(-37, cache.probe(key));
+
+        // a key sharing the slot replaces the entry, and the old key misses
+        long other = key ^ (1L << 40);
+        cache.store(other, 12);
+        assertEquals(EvalCache.MISS, cache.probe(key));
+        assertEquals(12, cache.probe(other));
+    }
+
+    private static int evaluate(String fen) {
+        BoardController boardController = new BoardController(fen);
+        return new Evaluator(boardController.getBitboard()).evaluate(Piece.Color.WHITE);
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.camsmith03;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTests {
+
+    /**
+     * Plays a move given in coordinate notation (e.g. "e2e4").
+     */
+    private static void play(BoardController boardController, String text) {
+        MoveList moves = boardController.getLegalMoves();
+        while (!moves.isEmpty()) {
+            int move = moves.pop();
+            if (Perft.coordinates(move).equals(text)) {
+                boardController.move(PackedMove.toMove(move));
+                return;
+            }
+        }
+        fail("Illegal move " + text);
+    }
+
+    @Test
+    void testRoundTrip() {
+        String[] positions = {
+                Fen.START_POSITION,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1",
+                "r3k2r/8/3Q4/8/8/5q2/8/R3K2R b Kq - 12 40"};
+        for (String fen : positions)
+            assertEquals(fen, new BoardController(fen).toFen());
+    }
+
+    @Test
+    void testMatchesPlayedPosition() {
+        BoardController played = new BoardController();
+        play(played, "e2e4");
+        play(played, "c7c5");
+        play(played, "g1f3");
+        play(played, "c5c4");
+        play(played, "d2d4");
+
+        String fen = "rnbqkbnr/pp1ppppp/8/8/2pPP3/5N2/PPP2PPP/RNBQKB1R b KQkq d3 0 3";
+        assertEquals(fen, played.toFen());
+        BoardController loaded = new BoardController(fen);
+        assertEquals(played.getBitboard().getZobristKey(), loaded.getBitboard().getZobristKey());
+        assertEquals(played.getLegalMoves().size(), loaded.getLegalMoves().size()); // includes c4xd3 en passant
+    }
+
+    @Test
+    void testEnPassantKeyNeedsCapturer() {
+        // nothing can take the e4 pawn, so the double push hashes like the same position without a target square
+        BoardController played = new BoardController();
+        play(played, "e2e4");
+        assertEquals(new BoardController("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")
+                .getBitboard().getZobristKey(), played.getBitboard().getZobristKey());
+
+        // the c4 pawn can take the d4 pawn, so the target square changes the key
+        assertNotEquals(new BoardController("rnbqkbnr/pp1ppppp/8/8/2pPP3/5N2/PPP2PPP/RNBQKB1R b KQkq - 0 3")
+                .getBitboard().getZobristKey(), new BoardController(
+                "rnbqkbnr/pp1ppppp/8/8/2pPP3/5N2/PPP2PPP/RNBQKB1R b KQkq d3 0 3").getBitboard().getZobristKey());
+    }
+
+    @Test
+    void testCleanBoardKeepsBitboard() {
+        BoardController boardController = new BoardController();
+        Bitboard bitboard = boardController.getBitboard();
+        play(boardController, "e2e4");
+        play(boardController, "e7e5");
+        boardController.cleanBoard();
+        assertSame(bitboard, boardController.getBitboard());
+        assertEquals(Fen.START_POSITION, boardController.toFen());
+        assertEquals(new BoardController().getBitboard().getZobristKey(), bitboard.getZobristKey());
+    }
+
+    @Test
+    void testMissingCountersDefault() {
+        BoardController boardController = new BoardController("4k3/8/8/8/8/8/8/4K3 w - -");
+        assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", boardController.toFen());
+    }
+
+    @Test
+    void testStaleCastlingRightsDropped() {
+        // the h1 rook has moved, so white can only castle queen side
+        BoardController boardController = new BoardController("r3k2r/8/8/8/8/8/8/R3K1R1 w KQkq - 0 1");
+        assertEquals("r3k2r/8/8/8/8/8/8/R3K1R1 w Qkq - 0 1", boardController.toFen());
+    }
+
+    @Test
+    void testInvalidFen() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",        // seven ranks
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", // nine squares
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQ1BNR w kq - 0 1",   // no white king
+                "P3k3/8/8/8/8/8/8/4K3 w - - 0 1",                           // pawn on the last rank
+                "4k3/8/8/8/8/8/8/4K3 x - - 0 1",                            // side to move
+                "4k3/8/8/8/8/8/8/4K3 w - e3 0 1",                           // no pawn to take
+                "4k3/8/8/8/8/8/8/4K3 w - - x 1",                            // counters
+                "4k3/8/8/8/8/8/8/4R1K1 w - - 0 1"};                         // black is in check
+        for (String fen : invalid)
+            assertThrows(IllegalArgumentException.class, () -> new BoardController(fen), fen);
+    }
+
+    @Test
+    void testRejectedFenKeepsPosition() {
+        BoardController boardController = new BoardController();
+        assertThrows(IllegalArgumentException.class, () -> boardController.loadFen("4k3/8/8/8/8/8/8/4R1K1 w - - 0 1"));
+        assertEquals(Fen.START_POSITION, boardController.toFen());
+    }
+}
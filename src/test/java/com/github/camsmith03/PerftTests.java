@@ -0,0 +1,134 @@
+package com.github.camsmith03;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perft counts of the standard reference positions, which pin down the move
+ * generator (and make/unmake) exactly. The untagged tests run on every build
+ * in a few seconds; the ones tagged "deep" go several plies further, and only
+ * run with the deep-tests profile (mvn test -Pdeep-tests).
+ */
+public class PerftTests {
+    private static final String START = Fen.START_POSITION;
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    /**
+     * Checks the perft counts of a position, starting from depth 1.
+     */
+    private static void assertPerft(String fen, long... counts) {
+        for (int depth = 1; depth <= counts.length; depth++)
+            assertPerft(fen, depth, counts[depth - 1]);
+    }
+
+    private static void assertPerft(String fen, int depth, long count) {
+        BoardController boardController = new BoardController(fen);
+        assertEquals(count, new Perft(boardController.getBitboard()).count(boardController.getTurn(), depth),
+                fen + " at depth " + depth);
+    }
+
+    @Test
+    void testStartPosition() {
+        assertPerft(START, 20, 400, 8902, 197281);
+    }
+
+    @Test
+    void testKiwipete() {
+        assertPerft(KIWIPETE, 48, 2039, 97862);
+    }
+
+    @Test
+    void testEndgameEnPassantPins() {
+        assertPerft(POSITION_3, 14, 191, 2812, 43238, 674624);
+    }
+
+    @Test
+    void testPromotionsAndCastlingOutOfCheck() {
+        assertPerft(POSITION_4, 6, 264, 9467);
+        // the same position mirrored, with black to move
+        assertPerft("r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1", 6, 264, 9467);
+    }
+
+    @Test
+    void testPromotionCaptures() {
+        assertPerft(POSITION_5, 44, 1486, 62379);
+    }
+
+    @Test
+    void testMiddlegame() {
+        assertPerft(POSITION_6, 46, 2079, 89890);
+    }
+
+    @Test
+    void testEnPassantEdgeCases() {
+        assertPerft("3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1", 6, 1134888);   // en passant exposing the king
+        assertPerft("8/8/4k3/8/2p5/8/B2P2K1/8 w - - 0 1", 6, 1015133);  // double push into a pin
+        assertPerft("8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1", 6, 1440467); // en passant giving check
+    }
+
+    @Test
+    void testCastlingEdgeCases() {
+        assertPerft("5k2/8/8/8/8/8/8/4K2R w K - 0 1", 6, 661072);                  // short castling gives check
+        assertPerft("3k4/8/8/8/8/8/8/R3K3 w Q - 0 1", 6, 803711);                  // long castling gives check
+        assertPerft("r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1", 4, 1274206);      // rights lost to captures
+        assertPerft("r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1", 4, 1720476);       // castling through attacks
+    }
+
+    @Test
+    void testPromotionAndMateEdgeCases() {
+        assertPerft("2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1", 6, 3821001); // promoting out of check
+        assertPerft("8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1", 5, 1004658); // discovered check
+        assertPerft("4k3/1P6/8/8/8/8/K7/8 w - - 0 1", 6, 217342);       // promoting to give check
+        assertPerft("8/P1k5/K7/8/8/8/8/8 w - - 0 1", 6, 92683);         // under-promoting to give check
+        assertPerft("K1k5/8/P7/8/8/8/8/8 w - - 0 1", 6, 2217);          // self stalemate
+        assertPerft("8/k1P5/8/1K6/8/8/8/8 w - - 0 1", 7, 567584);       // stalemate and checkmate
+        assertPerft("8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1", 4, 23527);     // stalemate and checkmate
+    }
+
+    @Test
+    @Tag("deep")
+    void testStartPositionDeep() {
+        assertPerft(START, 5, 4865609);
+        assertPerft(START, 6, 119060324);
+    }
+
+    @Test
+    @Tag("deep")
+    void testKiwipeteDeep() {
+        assertPerft(KIWIPETE, 4, 4085603);
+        assertPerft(KIWIPETE, 5, 193690690);
+    }
+
+    @Test
+    @Tag("deep")
+    void testEndgameEnPassantPinsDeep() {
+        assertPerft(POSITION_3, 6, 11030083);
+    }
+
+    @Test
+    @Tag("deep")
+    void testPromotionsAndCastlingOutOfCheckDeep() {
+        assertPerft(POSITION_4, 4, 422333);
+        assertPerft(POSITION_4, 5, 15833292);
+    }
+
+    @Test
+    @Tag("deep")
+    void testPromotionCapturesDeep() {
+        assertPerft(POSITION_5, 4, 2103487);
+        assertPerft(POSITION_5, 5, 89941194);
+    }
+
+    @Test
+    @Tag("deep")
+    void testMiddlegameDeep() {
+        assertPerft(POSITION_6, 4, 3894594);
+        assertPerft(POSITION_6, 5, 164075551);
+    }
+}
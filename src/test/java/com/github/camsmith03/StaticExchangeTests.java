@@ -0,0 +1,110 @@
+package com.github.camsmith03;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaticExchangeTests {
+    private static final String TYPES = "PNBRQK";
+
+    /**
+     * Builds a bitboard holding only the given pieces, written as the piece
+     * letter followed by the square (e.g. "Ke1").
+     */
+    private static Bitboard position(String white, String black) {
+        long[][] boards = new long[2][Bitboard.BOARD_COUNT];
+        long[] colorBoards = new long[2];
+        String[][] pieces = {white.split(" "), black.split(" ")};
+        for (int color = 0; color < 2; color++) {
+            for (String piece : pieces[color]) {
+                long mask = 1L << square(piece.substring(1));
+                boards[color][TYPES.indexOf(piece.charAt(0))] |= mask;
+                colorBoards[color] |= mask;
+            }
+        }
+
+        Bitboard bitboard = new Bitboard();
+        bitboard.restoreSaveState(new SaveState(boards, colorBoards, 0, 0));
+        return bitboard;
+    }
+
+    private static int square(String name) {
+        return (name.charAt(1) - '1') * 8 + (name.charAt(0) - 'a');
+    }
+
+    private static int capture(String from, String to, Piece.Type moved, Piece.Color color, Piece.Type captured) {
+        return PackedMove.encode(square(from), square(to), moved.ordinal(), color.ordinal(), captured.ordinal(),
+                PackedMove.NO_PIECE, 0);
+    }
+
+    @Test
+    void testUndefendedPawn() {
+        Bitboard board = position("Kc1 Re1 Pa3 Pg3 Pb2 Pc2 Ph2", "Kb8 Rd8 Pb7 Pc7 Ph7 Pa6 Pe5");
+        int move = capture("e1", "e5", Piece.Type.ROOK, Piece.Color.WHITE, Piece.Type.PAWN);
+        assertEquals(1, new StaticExchange(board).evaluate(move));
+    }
+
+    @Test
+    void testDefendedPawnTakenByQueen() {
+        Bitboard board = position("Kg1 Qd1", "Kg8 Pd5 Pe6");
+        int move = capture("d1", "d5", Piece.Type.QUEEN, Piece.Color.WHITE, Piece.Type.PAWN);
+        StaticExchange see = new StaticExchange(board);
+        assertEquals(-8, see.evaluate(move));
+        assertTrue(see.isLosing(move));
+    }
+
+    @Test
+    void testPawnTakesDefendedKnight() {
+        Bitboard board = position("Kg1 Pe4", "Kg8 Nd5 Pc6");
+        int move = capture("e4", "d5", Piece.Type.PAWN, Piece.Color.WHITE, Piece.Type.KNIGHT);
+        StaticExchange see = new StaticExchange(board);
+        assertEquals(2, see.evaluate(move));
+        assertFalse(see.isLosing(move));
+    }
+
+    @Test
+    void testRookBackedByXray() {
+        // Re1 supports Re2 through it, so the defended pawn can be won
+        Bitboard board = position("Kg1 Re1 Re2", "Kg8 Re8 Pe5");
+        int move = capture("e2", "e5", Piece.Type.ROOK, Piece.Color.WHITE, Piece.Type.PAWN);
+        assertEquals(1, new StaticExchange(board).evaluate(move));
+
+        Bitboard unsupported = position("Kg1 Re2", "Kg8 Re8 Pe5");
+        assertEquals(-4, new StaticExchange(unsupported).evaluate(move));
+    }
+
+    @Test
+    void testLongExchangeWithXrays() {
+        // Nxe5 Nxe5 Rxe5 Bxe5 Qxe5 Qxe5: white loses the knight for a pawn
+        Bitboard board = position("Kc1 Qe1 Re2 Nd3 Bg2 Pa3 Pg3 Pb2 Pc2 Ph2",
+                                  "Kb8 Qh8 Rd8 Nd7 Bf6 Pb7 Pc7 Ph7 Pa6 Pe5");
+        int move = capture("d3", "e5", Piece.Type.KNIGHT, Piece.Color.WHITE, Piece.Type.PAWN);
+        assertEquals(-2, new StaticExchange(board).evaluate(move));
+    }
+
+    @Test
+    void testKingCannotRecaptureDefendedPiece() {
+        Bitboard board = position("Kg1 Qf3 Bc4", "Kg8 Pf7");
+        int move = capture("f3", "f7", Piece.Type.QUEEN, Piece.Color.WHITE, Piece.Type.PAWN);
+        assertEquals(1, new StaticExchange(board).evaluate(move));
+
+        Bitboard undefended = position("Kg1 Qf3", "Kg8 Pf7");
+        assertEquals(-8, new StaticExchange(undefended).evaluate(move));
+    }
+
+    @Test
+    void testPromotionIntoDefendedSquare() {
+        Bitboard board = position("Kg1 Pe7", "Kh7 Ra8");
+        int move = PackedMove.encode(square("e7"), square("e8"), Piece.Type.PAWN.ordinal(),
+                Piece.Color.WHITE.ordinal(), PackedMove.NO_PIECE, Piece.Type.QUEEN.ordinal(), 0);
+        assertEquals(-1, new StaticExchange(board).evaluate(move));
+    }
+
+    @Test
+    void testEnPassant() {
+        Bitboard board = position("Kg1 Pe5", "Kg8 Pd5");
+        int move = PackedMove.encode(square("e5"), square("d6"), Piece.Type.PAWN.ordinal(),
+                Piece.Color.WHITE.ordinal(), Piece.Type.PAWN.ordinal(), PackedMove.NO_PIECE, PackedMove.EN_PASSANT);
+        assertEquals(1, new StaticExchange(board).evaluate(move));
+    }
+}